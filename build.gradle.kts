@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.1.7"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.chriscasey"
@@ -26,6 +27,8 @@ dependencies {
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.2.0")
 	implementation("io.swagger.core.v3:swagger-annotations:2.2.20")
 	implementation("org.springframework.boot:spring-boot-starter-security")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	implementation("io.jsonwebtoken:jjwt-api:0.11.5")
 	implementation("com.theokanning.openai-gpt3-java:service:0.18.2")
     implementation("org.springframework.boot:spring-boot-starter-web")
@@ -45,3 +48,10 @@ dependencies {
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+// ./gradlew jmh (benchmarks live in src/jmh/java)
+jmh {
+	warmupIterations = 2
+	iterations = 5
+	fork = 1
+}
@@ -0,0 +1,78 @@
+package com.chriscasey.codechallenger.jwt;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify cost of an access token with the legacy HS256 secret versus ES256.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtSigningBenchmark {
+
+    private Key hmacKey;
+    private KeyPair ecKeys;
+    private JwtParser hmacParser;
+    private JwtParser ecParser;
+    private String hmacToken;
+    private String ecToken;
+
+    @Setup
+    public void setUp() {
+        hmacKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        ecKeys = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        hmacParser = Jwts.parserBuilder().setSigningKey(hmacKey).build();
+        ecParser = Jwts.parserBuilder().setSigningKey(ecKeys.getPublic()).build();
+        hmacToken = signHs256();
+        ecToken = signEs256();
+    }
+
+    @Benchmark
+    public String signHs256() {
+        return token().signWith(hmacKey, SignatureAlgorithm.HS256).compact();
+    }
+
+    @Benchmark
+    public String signEs256() {
+        return token().setHeaderParam("kid", "bench").signWith(ecKeys.getPrivate(), SignatureAlgorithm.ES256).compact();
+    }
+
+    @Benchmark
+    public Object verifyHs256() {
+        return hmacParser.parseClaimsJws(hmacToken).getBody();
+    }
+
+    @Benchmark
+    public Object verifyEs256() {
+        return ecParser.parseClaimsJws(ecToken).getBody();
+    }
+
+    // Same claim shape as JwtService access tokens
+    private static JwtBuilder token() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setClaims(Map.of("uid", 42L, "role", "USER"))
+                .setId("00000000-0000-0000-0000-000000000000")
+                .setSubject("bench@example.com")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 900_000));
+    }
+}
@@ -0,0 +1,29 @@
+package com.chriscasey.codechallenger.admin;
+
+import com.chriscasey.codechallenger.admin.dto.AdminChallengeRow;
+import com.chriscasey.codechallenger.admin.dto.DifficultyAggregateRow;
+import com.chriscasey.codechallenger.challenge.CodeChallenge;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+// Read-only admin projections over code_challenge; kept here so the challenge package doesn't depend on admin DTOs
+public interface AdminChallengeRepository extends Repository<CodeChallenge, Long> {
+
+    // Only the admin view columns, fetched for a whole page of users at once to avoid N+1
+    @Query("select new com.chriscasey.codechallenger.admin.dto.AdminChallengeRow("
+            + "c.user.id, c.id, c.title, c.description, c.difficulty, c.status, c.failedAttempts, c.completedAt, c.solution) "
+            + "from CodeChallenge c where c.user.id in :userIds order by c.id")
+    List<AdminChallengeRow> findAdminRowsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Baseline for the admin aggregates; scans the table once at startup
+    @Query("select new com.chriscasey.codechallenger.admin.dto.DifficultyAggregateRow(c.difficulty, count(c), "
+            + "sum(case when c.status = com.chriscasey.codechallenger.challenge.ChallengeStatus.COMPLETED then 1L else 0L end), "
+            + "sum(case when c.status = com.chriscasey.codechallenger.challenge.ChallengeStatus.SKIPPED then 1L else 0L end), "
+            + "sum(c.failedAttempts * 1L)) "
+            + "from CodeChallenge c group by c.difficulty")
+    List<DifficultyAggregateRow> aggregateByDifficulty();
+}
@@ -1,22 +1,27 @@
 package com.chriscasey.codechallenger.admin;
 
+import com.chriscasey.codechallenger.admin.dto.AdminChallengeRow;
 import com.chriscasey.codechallenger.admin.dto.AdminUserChallengeResponse;
 import com.chriscasey.codechallenger.admin.dto.AdminChallengeResponse;
+import com.chriscasey.codechallenger.admin.dto.AdminUsersCursorResponse;
 import com.chriscasey.codechallenger.admin.dto.AdminUsersPageResponse;
-import com.chriscasey.codechallenger.challenge.mapper.CodeChallengeMapper;
-import com.chriscasey.codechallenger.challenge.CodeChallenge;
-import com.chriscasey.codechallenger.challenge.CodeChallengeRepository;
 import com.chriscasey.codechallenger.auth.User;
 import com.chriscasey.codechallenger.auth.UserRepository;
+import com.chriscasey.codechallenger.auth.UserSummary;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -25,19 +30,22 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/admin")
 @RequiredArgsConstructor
+@Validated
 @Tag(name = "Admin")
 public class AdminController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final UserRepository userRepository;
-    private final CodeChallengeRepository challengeRepository;
+    private final AdminChallengeRepository challengeRepository;
 
     @GetMapping("/users")
     @RolesAllowed("ADMIN")
     @Operation(summary = "Get all users with their challenges (paginated)", description = "Admin-only endpoint")
     public ResponseEntity<AdminUsersPageResponse> getAllUsersWithChallenges(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "25") int size,
-            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "25") @Min(1) @Max(MAX_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = "id") @Pattern(regexp = "id|email") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir
     ) {
         Sort.Direction direction = "asc".equalsIgnoreCase(sortDir) ? Sort.Direction.ASC : Sort.Direction.DESC;
@@ -53,15 +61,7 @@ public class AdminController {
             return ResponseEntity.ok(empty);
         }
 
-        // Single batch query for all challenges belonging to these users
-        List<CodeChallenge> allChallenges = challengeRepository.findByUserIn(users);
-
-        // Group challenges by user id
-        Map<Long, List<AdminChallengeResponse>> byUserId = allChallenges.stream()
-                .collect(Collectors.groupingBy(
-                        ch -> ch.getUser().getId(),
-                        Collectors.mapping(CodeChallengeMapper::toAdminResponse, Collectors.toList())
-                ));
+        Map<Long, List<AdminChallengeResponse>> byUserId = challengesByUserId(users.stream().map(User::getId).toList());
 
         List<AdminUserChallengeResponse> content = users.stream()
                 .map(u -> new AdminUserChallengeResponse(
@@ -83,4 +83,57 @@ public class AdminController {
 
         return ResponseEntity.ok(body);
     }
+
+    @GetMapping("/users/cursor")
+    @RolesAllowed("ADMIN")
+    @Operation(
+            summary = "Get users with their challenges (keyset paginated by user id)",
+            description = "Admin-only endpoint. Pass the returned nextCursor to fetch the following page; "
+                    + "cost stays constant however deep the page is."
+    )
+    public ResponseEntity<AdminUsersCursorResponse> getUsersWithChallengesByCursor(
+            @Parameter(description = "Last user id of the previous page; omit for the first page")
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "25") @Min(1) @Max(MAX_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Also run a count query for totalElements")
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        boolean ascending = "asc".equalsIgnoreCase(sortDir);
+        // Fetch one extra row to learn whether another page exists without counting
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<UserSummary> rows = ascending
+                ? userRepository.findSummariesAfter(cursor != null ? cursor : 0L, limit)
+                : userRepository.findSummariesBefore(cursor != null ? cursor : Long.MAX_VALUE, limit);
+
+        boolean hasMore = rows.size() > size;
+        List<UserSummary> users = hasMore ? rows.subList(0, size) : rows;
+        Long nextCursor = hasMore ? users.get(users.size() - 1).id() : null;
+
+        Map<Long, List<AdminChallengeResponse>> byUserId = users.isEmpty()
+                ? Map.of()
+                : challengesByUserId(users.stream().map(UserSummary::id).toList());
+
+        List<AdminUserChallengeResponse> content = users.stream()
+                .map(u -> new AdminUserChallengeResponse(
+                        u.id(),
+                        u.email(),
+                        byUserId.getOrDefault(u.id(), Collections.emptyList())
+                ))
+                .toList();
+
+        Long total = includeTotal ? userRepository.count() : null;
+        return ResponseEntity.ok(new AdminUsersCursorResponse(
+                size, ascending ? "asc" : "desc", nextCursor, total, content
+        ));
+    }
+
+    // Single batch projection query for all challenges belonging to these users, grouped by user id
+    private Map<Long, List<AdminChallengeResponse>> challengesByUserId(List<Long> userIds) {
+        return challengeRepository.findAdminRowsByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(
+                        AdminChallengeRow::userId,
+                        Collectors.mapping(AdminChallengeRow::toResponse, Collectors.toList())
+                ));
+    }
 }
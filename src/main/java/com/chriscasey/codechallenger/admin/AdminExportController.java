@@ -0,0 +1,60 @@
+package com.chriscasey.codechallenger.admin;
+
+import com.chriscasey.codechallenger.challenge.ChallengeStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Admin")
+public class AdminExportController {
+
+    private final AdminExportService exportService;
+
+    // Writes straight to the servlet response (no async timeout, constant memory)
+    @GetMapping("/export")
+    @RolesAllowed("ADMIN")
+    @Operation(
+            summary = "Stream all users and challenges as NDJSON or CSV",
+            description = "Admin-only endpoint. Rows are streamed from a database cursor; "
+                    + "status and completion-date filters restrict the export to matching challenges."
+    )
+    public void export(
+            @RequestParam(defaultValue = "ndjson") @Pattern(regexp = "ndjson|csv") String format,
+            @RequestParam(required = false) ChallengeStatus status,
+            @Parameter(description = "Inclusive lower bound on completedAt (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime completedFrom,
+            @Parameter(description = "Exclusive upper bound on completedAt (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime completedTo,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"codechallenger-export." + exportFormat.extension() + "\"");
+
+        exportService.export(
+                exportFormat,
+                new AdminExportService.ExportFilter(status, completedFrom, completedTo),
+                response.getOutputStream()
+        );
+    }
+}
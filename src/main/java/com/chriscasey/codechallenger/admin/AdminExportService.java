@@ -0,0 +1,233 @@
+package com.chriscasey.codechallenger.admin;
+
+import com.chriscasey.codechallenger.challenge.ChallengeStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams every user and challenge row straight from a forward-only JDBC cursor to the
+ * output stream, so memory stays constant regardless of table size. A slow client simply
+ * blocks the writes, which in turn stops the cursor from fetching further rows.
+ */
+@Service
+public class AdminExportService {
+
+    private static final String[] COLUMNS = {
+            "userId", "email", "challengeId", "title", "description", "difficulty",
+            "status", "failedAttempts", "completedAt", "solution"
+    };
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public AdminExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.admin-export.fetch-size:1000}") int fetchSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // Some drivers (e.g. PostgreSQL) only honour the fetch size inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(ExportFormat format, ExportFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = (format == ExportFormat.CSV) ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(filter, params);
+        try {
+            rowWriter.start();
+            int[] rows = {0};
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(rs);
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException ex) {
+                    // Client went away: abort the cursor instead of reading the rest of the table
+                    throw new UncheckedIOException(ex);
+                }
+            }, params.toArray()));
+            rowWriter.finish();
+            writer.flush();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static String buildQuery(ExportFilter filter, List<Object> params) {
+        StringBuilder sql = new StringBuilder("""
+                select u.id as user_id, u.email, c.id as challenge_id, c.title, c.description, c.difficulty,
+                       c.status, c.failed_attempts, c.completed_at, c.solution
+                from users u
+                """);
+        if (!filter.filtersChallenges()) {
+            // No challenge filter: include users without any challenge too
+            sql.append("left join code_challenge c on c.user_id = u.id\n");
+        } else {
+            sql.append("join code_challenge c on c.user_id = u.id\nwhere 1 = 1\n");
+            if (filter.status() != null) {
+                sql.append("and c.status = ?\n");
+                params.add(filter.status().name());
+            }
+            if (filter.completedFrom() != null) {
+                sql.append("and c.completed_at >= ?\n");
+                params.add(Timestamp.valueOf(filter.completedFrom()));
+            }
+            if (filter.completedTo() != null) {
+                sql.append("and c.completed_at < ?\n");
+                params.add(Timestamp.valueOf(filter.completedTo()));
+            }
+        }
+        sql.append("order by u.id, c.id");
+        return sql.toString();
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(ResultSet rs) throws IOException, SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator json;
+
+        private NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are framed by the newline written below; the default separator is a space
+            this.json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException, SQLException {
+            json.writeStartObject();
+            json.writeNumberField("userId", rs.getLong("user_id"));
+            json.writeStringField("email", rs.getString("email"));
+            long challengeId = rs.getLong("challenge_id");
+            if (rs.wasNull()) {
+                json.writeNullField("challengeId");
+            } else {
+                json.writeNumberField("challengeId", challengeId);
+                json.writeStringField("title", rs.getString("title"));
+                json.writeStringField("description", rs.getString("description"));
+                json.writeNumberField("difficulty", rs.getInt("difficulty"));
+                json.writeStringField("status", rs.getString("status"));
+                json.writeNumberField("failedAttempts", rs.getInt("failed_attempts"));
+                Timestamp completedAt = rs.getTimestamp("completed_at");
+                json.writeStringField("completedAt", completedAt != null ? completedAt.toLocalDateTime().toString() : null);
+                json.writeNumberField("solution", rs.getInt("solution"));
+            }
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        // OWASP CSV injection list; only applied to text cells, so negative numbers stay numbers
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException, SQLException {
+            Timestamp completedAt = rs.getTimestamp("completed_at");
+            writer.write(rs.getLong("user_id") + ",");
+            writer.write(escape(rs.getString("email")) + ",");
+            writer.write(nullable(rs.getObject("challenge_id")) + ",");
+            writer.write(escape(rs.getString("title")) + ",");
+            writer.write(escape(rs.getString("description")) + ",");
+            writer.write(nullable(rs.getObject("difficulty")) + ",");
+            writer.write(nullable(rs.getString("status")) + ",");
+            writer.write(nullable(rs.getObject("failed_attempts")) + ",");
+            writer.write((completedAt != null ? completedAt.toLocalDateTime().toString() : "") + ",");
+            writer.write(nullable(rs.getObject("solution")));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private static String nullable(Object value) {
+            return value != null ? value.toString() : "";
+        }
+
+        // RFC 4180 quoting, after neutralising cells a spreadsheet would evaluate as a formula
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    public record ExportFilter(
+            ChallengeStatus status,
+            LocalDateTime completedFrom,
+            LocalDateTime completedTo
+    ) {
+        boolean filtersChallenges() {
+            return status != null || completedFrom != null || completedTo != null;
+        }
+    }
+}
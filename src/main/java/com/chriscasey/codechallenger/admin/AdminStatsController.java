@@ -0,0 +1,30 @@
+package com.chriscasey.codechallenger.admin;
+
+import com.chriscasey.codechallenger.admin.dto.AdminStatsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.security.RolesAllowed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@Tag(name = "Admin")
+public class AdminStatsController {
+
+    private final ChallengeStatsAggregator aggregator;
+
+    @GetMapping("/stats")
+    @RolesAllowed("ADMIN")
+    @Operation(
+            summary = "Global challenge statistics per difficulty",
+            description = "Admin-only endpoint. Served from in-memory counters; does not query the challenge table."
+    )
+    public ResponseEntity<AdminStatsResponse> getStats() {
+        return ResponseEntity.ok(aggregator.snapshot());
+    }
+}
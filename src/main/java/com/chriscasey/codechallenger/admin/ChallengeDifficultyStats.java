@@ -0,0 +1,35 @@
+package com.chriscasey.codechallenger.admin;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Periodic snapshot of the in-memory aggregates, one row per difficulty, for SQL consumers
+@Entity
+@Table(name = "challenge_difficulty_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChallengeDifficultyStats {
+
+    @Id
+    private Integer difficulty;
+
+    @Column(nullable = false)
+    private long created;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(nullable = false)
+    private long skipped;
+
+    @Column(nullable = false)
+    private long failedAttempts;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
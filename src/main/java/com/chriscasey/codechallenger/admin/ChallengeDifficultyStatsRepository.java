@@ -0,0 +1,6 @@
+package com.chriscasey.codechallenger.admin;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ChallengeDifficultyStatsRepository extends JpaRepository<ChallengeDifficultyStats, Integer> {
+}
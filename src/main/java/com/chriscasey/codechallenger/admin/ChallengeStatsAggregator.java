@@ -0,0 +1,127 @@
+package com.chriscasey.codechallenger.admin;
+
+import com.chriscasey.codechallenger.admin.dto.AdminDifficultyStatsResponse;
+import com.chriscasey.codechallenger.admin.dto.AdminStatsResponse;
+import com.chriscasey.codechallenger.admin.dto.DifficultyAggregateRow;
+import com.chriscasey.codechallenger.challenge.ChallengeEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global per-difficulty challenge counters for {@code /admin/stats}.
+ * <p>
+ * Built once from {@code code_challenge} at startup (before the server accepts requests),
+ * then kept current from committed {@link ChallengeEvent}s, so reads never touch the
+ * challenge table. A snapshot is periodically written to {@code challenge_difficulty_stats}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChallengeStatsAggregator {
+
+    static final int MAX_DIFFICULTY = 5;
+
+    private final AdminChallengeRepository challengeRepository;
+    private final ChallengeDifficultyStatsRepository statsRepository;
+
+    // Indexed by difficulty; slot 0 is unused
+    private final Counters[] byDifficulty = newCounters();
+
+    @PostConstruct
+    void rebuild() {
+        for (DifficultyAggregateRow row : challengeRepository.aggregateByDifficulty()) {
+            Counters counters = counters(row.difficulty());
+            counters.created.add(nullToZero(row.created()));
+            counters.completed.add(nullToZero(row.completed()));
+            counters.skipped.add(nullToZero(row.skipped()));
+            counters.failedAttempts.add(nullToZero(row.failedAttempts()));
+        }
+        log.info("Challenge aggregates rebuilt: {}", snapshot().overall());
+    }
+
+    // Only committed transitions count; fallback covers callers without a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChallengeEvent(ChallengeEvent event) {
+        Counters counters = counters(event.difficulty());
+        switch (event.type()) {
+            case CREATED -> counters.created.increment();
+            case DISCARDED -> counters.created.decrement();
+            case COMPLETED -> counters.completed.increment();
+            case SKIPPED -> counters.skipped.increment();
+            case FAILED_ATTEMPT -> counters.failedAttempts.increment();
+        }
+    }
+
+    public AdminStatsResponse snapshot() {
+        List<AdminDifficultyStatsResponse> rows = new ArrayList<>(MAX_DIFFICULTY);
+        long created = 0, completed = 0, skipped = 0, failedAttempts = 0;
+        for (int difficulty = 1; difficulty <= MAX_DIFFICULTY; difficulty++) {
+            Counters counters = byDifficulty[difficulty];
+            AdminDifficultyStatsResponse row = AdminDifficultyStatsResponse.of(
+                    difficulty,
+                    counters.created.sum(),
+                    counters.completed.sum(),
+                    counters.skipped.sum(),
+                    counters.failedAttempts.sum()
+            );
+            rows.add(row);
+            created += row.created();
+            completed += row.completed();
+            skipped += row.skipped();
+            failedAttempts += row.failedAttempts();
+        }
+        return new AdminStatsResponse(
+                AdminDifficultyStatsResponse.of(null, created, completed, skipped, failedAttempts),
+                rows
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin-stats.flush-interval-ms:60000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ChallengeDifficultyStats> rows = snapshot().byDifficulty().stream()
+                .map(row -> ChallengeDifficultyStats.builder()
+                        .difficulty(row.difficulty())
+                        .created(row.created())
+                        .completed(row.completed())
+                        .skipped(row.skipped())
+                        .failedAttempts(row.failedAttempts())
+                        .updatedAt(now)
+                        .build())
+                .toList();
+        statsRepository.saveAll(rows);
+    }
+
+    // Out-of-range difficulties are folded into the nearest bucket rather than dropped
+    private Counters counters(int difficulty) {
+        return byDifficulty[Math.max(1, Math.min(MAX_DIFFICULTY, difficulty))];
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static Counters[] newCounters() {
+        Counters[] counters = new Counters[MAX_DIFFICULTY + 1];
+        for (int i = 1; i <= MAX_DIFFICULTY; i++) {
+            counters[i] = new Counters();
+        }
+        return counters;
+    }
+
+    private static final class Counters {
+        private final LongAdder created = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failedAttempts = new LongAdder();
+    }
+}
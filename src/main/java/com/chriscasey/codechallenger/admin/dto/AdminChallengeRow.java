@@ -0,0 +1,22 @@
+package com.chriscasey.codechallenger.admin.dto;
+
+import com.chriscasey.codechallenger.challenge.ChallengeStatus;
+
+import java.time.LocalDateTime;
+
+// JPQL constructor projection: only the columns AdminChallengeResponse needs, plus the owner id
+public record AdminChallengeRow(
+        Long userId,
+        Long id,
+        String title,
+        String description,
+        int difficulty,
+        ChallengeStatus status,
+        int failedAttempts,
+        LocalDateTime completedAt,
+        int solution
+) {
+    public AdminChallengeResponse toResponse() {
+        return new AdminChallengeResponse(id, title, description, difficulty, status, failedAttempts, completedAt, solution);
+    }
+}
@@ -0,0 +1,25 @@
+package com.chriscasey.codechallenger.admin.dto;
+
+// Rates are relative to all challenges created at this difficulty (0 when none exist)
+public record AdminDifficultyStatsResponse(
+        Integer difficulty,
+        long created,
+        long completed,
+        long skipped,
+        long failedAttempts,
+        double completionRate,
+        double skipRate,
+        double meanFailedAttempts
+) {
+    public static AdminDifficultyStatsResponse of(Integer difficulty, long created, long completed,
+                                                  long skipped, long failedAttempts) {
+        return new AdminDifficultyStatsResponse(
+                difficulty, created, completed, skipped, failedAttempts,
+                ratio(completed, created), ratio(skipped, created), ratio(failedAttempts, created)
+        );
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator > 0 ? (double) numerator / denominator : 0.0;
+    }
+}
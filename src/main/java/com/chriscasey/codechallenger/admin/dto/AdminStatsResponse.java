@@ -0,0 +1,9 @@
+package com.chriscasey.codechallenger.admin.dto;
+
+import java.util.List;
+
+public record AdminStatsResponse(
+        AdminDifficultyStatsResponse overall,
+        List<AdminDifficultyStatsResponse> byDifficulty
+) {
+}
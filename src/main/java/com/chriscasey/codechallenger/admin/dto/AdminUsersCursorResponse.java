@@ -0,0 +1,11 @@
+package com.chriscasey.codechallenger.admin.dto;
+
+import java.util.List;
+
+public record AdminUsersCursorResponse(
+        int size,
+        String sortDir,
+        Long nextCursor,
+        Long totalElements,
+        List<AdminUserChallengeResponse> content
+) {}
@@ -0,0 +1,11 @@
+package com.chriscasey.codechallenger.admin.dto;
+
+// JPQL constructor projection: one GROUP BY row of code_challenge per difficulty
+public record DifficultyAggregateRow(
+        int difficulty,
+        Long created,
+        Long completed,
+        Long skipped,
+        Long failedAttempts
+) {
+}
@@ -1,7 +1,9 @@
 package com.chriscasey.codechallenger.auth;
 
+import com.chriscasey.codechallenger.exception.RefreshTokenException;
 import com.chriscasey.codechallenger.jwt.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +16,7 @@ public class AuthController {
 
     private final AuthService authService;
     private final RefreshTokenService refreshTokenService;
+    private final UserCache userCache;
     private final JwtService jwtService;
 
     @PostMapping("/register")
@@ -28,12 +31,19 @@ public class AuthController {
 
     @PostMapping("/refresh")
     public ResponseEntity<RefreshResponse> refresh(@RequestBody RefreshTokenRequest request) {
-        RefreshToken oldToken = refreshTokenService.getValidRefreshTokenOrThrow(request.refreshToken());
-        User user = oldToken.getUser();
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.refreshToken());
+        User user = userCache.findById(rotation.userId())
+                .orElseThrow(() -> new RefreshTokenException("Invalid or expired refresh token"));
 
         String newAccessToken = jwtService.generateToken(new HashMap<>(), user);
-        RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(user);
+        return ResponseEntity.ok(new RefreshResponse(newAccessToken, rotation.refreshToken()));
+    }
 
-        return ResponseEntity.ok(new RefreshResponse(newAccessToken, newRefreshToken.getToken()));
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            authService.logout(authorization.substring(7));
+        }
+        return ResponseEntity.noContent().build();
     }
 }
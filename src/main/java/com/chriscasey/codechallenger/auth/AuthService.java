@@ -1,7 +1,10 @@
 package com.chriscasey.codechallenger.auth;
 
 import com.chriscasey.codechallenger.challenge.CodeChallengeService;
+import com.chriscasey.codechallenger.jwt.AccessTokenClaims;
 import com.chriscasey.codechallenger.jwt.JwtService;
+import com.chriscasey.codechallenger.security.TokenDenyList;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,11 +18,13 @@ import java.util.HashMap;
 public class AuthService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
     private final CodeChallengeService challengeService;
     private final AuthenticationManager authenticationManager;
+    private final TokenDenyList denyList;
 
     public AuthResponse register(RegisterRequest request) {
         User user = User.builder()
@@ -32,9 +37,9 @@ public class AuthService {
         challengeService.generateNewChallenge(user); // create initial coding challenge
 
         String jwtToken = jwtService.generateToken(new HashMap<>(), user);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        String refreshToken = refreshTokenService.createRefreshToken(user);
 
-        return new AuthResponse(jwtToken, refreshToken.getToken());
+        return new AuthResponse(jwtToken, refreshToken);
     }
 
     public AuthResponse login(AuthRequest request) {
@@ -45,12 +50,26 @@ public class AuthService {
                 )
         );
 
-        User user = userRepository.findByEmail(request.email())
+        User user = userCache.findByEmail(request.email())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         String jwtToken = jwtService.generateToken(new HashMap<>(), user);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        String refreshToken = refreshTokenService.createRefreshToken(user);
 
-        return new AuthResponse(jwtToken, refreshToken.getToken());
+        return new AuthResponse(jwtToken, refreshToken);
+    }
+
+    // Revokes the presented access token and the user's refresh token; invalid tokens are ignored
+    public void logout(String accessToken) {
+        AccessTokenClaims claims;
+        try {
+            claims = jwtService.parseToken(accessToken);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return;
+        }
+        denyList.revoke(claims);
+        if (claims.userId() != null) {
+            refreshTokenService.revokeAll(claims.userId());
+        }
     }
 }
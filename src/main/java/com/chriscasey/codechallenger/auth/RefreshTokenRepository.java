@@ -1,10 +1,54 @@
 package com.chriscasey.codechallenger.auth;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
-    Optional<RefreshToken> findByUser(User user);
+
+    // One row per user: replaces the user's token or inserts the first one, in a single statement.
+    // Two first logins racing can both take the insert branch; the loser gets a duplicate key.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            merge into refresh_token t
+            using (select :userId as user_id, :tokenHash as token_hash, :expiryDate as expiry_date) s
+            on t.user_id = s.user_id
+            when matched then update set token_hash = s.token_hash, expiry_date = s.expiry_date
+            when not matched then insert (user_id, token_hash, expiry_date)
+                values (s.user_id, s.token_hash, s.expiry_date)
+            """, nativeQuery = true)
+    int upsert(@Param("userId") Long userId,
+               @Param("tokenHash") byte[] tokenHash,
+               @Param("expiryDate") Instant expiryDate);
+
+    // Swaps in the new token only if the presented one is current and unexpired; 0 rows = reject
+    @Modifying
+    @Transactional
+    @Query("update RefreshToken t set t.tokenHash = :newHash, t.expiryDate = :expiryDate "
+            + "where t.user.id = :userId and t.tokenHash = :oldHash and t.expiryDate > :now")
+    int rotate(@Param("userId") Long userId,
+               @Param("oldHash") byte[] oldHash,
+               @Param("newHash") byte[] newHash,
+               @Param("expiryDate") Instant expiryDate,
+               @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Served by idx_refresh_token_expiry; the Pageable only supplies the batch size
+    @Query("select t.id from RefreshToken t where t.expiryDate < :now")
+    List<Long> findExpiredIds(@Param("now") Instant now, Pageable limit);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.id in :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
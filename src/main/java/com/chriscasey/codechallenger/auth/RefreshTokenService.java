@@ -3,54 +3,101 @@ package com.chriscasey.codechallenger.auth;
 import com.chriscasey.codechallenger.exception.RefreshTokenException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Base64;
 
+/**
+ * Issues and rotates refresh tokens. A token is {@code <userId>.<random>}: the user id prefix
+ * lets rotation address the user's row directly, and only the SHA-256 of the whole token is
+ * stored, so the prefix cannot be used to forge one. Issuing and rotating are each a single
+ * statement.
+ */
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final RefreshTokenRepository refreshTokenRepository;
 
     @Value("${security.jwt.refresh-token.expiration}")
     private Long refreshTokenExpirationMs;
 
-    public RefreshToken createRefreshToken(User user) {
-        // Check if a refresh token already exists for this user
-        Optional<RefreshToken> existingTokenOpt = refreshTokenRepository.findByUser(user);
-    
-        RefreshToken refreshToken;
-        if (existingTokenOpt.isPresent()) {
-            refreshToken = existingTokenOpt.get();
-            refreshToken.setToken(UUID.randomUUID().toString());
-            refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenExpirationMs));
-        } else {
-            // Create new token
-            refreshToken = new RefreshToken();
-            refreshToken.setUser(user);
-            refreshToken.setToken(UUID.randomUUID().toString());
-            refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenExpirationMs));
+    public record Rotation(Long userId, String refreshToken) {}
+
+    /**
+     * Replaces any existing token of the user; returns the raw token for the client. If a
+     * concurrent first login inserted the user's row between our MERGE's match and insert, the
+     * duplicate key is retried once: the row exists now, so the retry takes the update branch.
+     * Must not run inside a caller's transaction, which the failed statement would poison.
+     */
+    public String createRefreshToken(User user) {
+        String rawToken = newRawToken(user.getId());
+        byte[] tokenHash = hash(rawToken);
+        try {
+            refreshTokenRepository.upsert(user.getId(), tokenHash, newExpiry());
+        } catch (DataIntegrityViolationException ex) {
+            refreshTokenRepository.upsert(user.getId(), tokenHash, newExpiry());
+        }
+        return rawToken;
+    }
+
+    /**
+     * Exchanges a current refresh token for a new one. A token that was already rotated
+     * (reused), has expired or never existed matches no row and is rejected; of two concurrent
+     * refreshes with the same token, only one succeeds.
+     */
+    public Rotation rotate(String presentedToken) {
+        Long userId = userIdOf(presentedToken);
+        String rawToken = newRawToken(userId);
+        int updated = refreshTokenRepository.rotate(
+                userId, hash(presentedToken), hash(rawToken), newExpiry(), Instant.now());
+        if (updated == 0) {
+            throw new RefreshTokenException("Invalid or expired refresh token");
         }
-    
-        return refreshTokenRepository.save(refreshToken);
+        return new Rotation(userId, rawToken);
+    }
+
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    private Instant newExpiry() {
+        return Instant.now().plusMillis(refreshTokenExpirationMs);
     }
 
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
-            throw new RefreshTokenException("Refresh token has expired. Please log in again.");
+    private static Long userIdOf(String token) {
+        int dot = (token != null) ? token.indexOf('.') : -1;
+        if (dot <= 0) {
+            throw new RefreshTokenException("Invalid or expired refresh token");
+        }
+        try {
+            return Long.valueOf(token.substring(0, dot));
+        } catch (NumberFormatException ex) {
+            throw new RefreshTokenException("Invalid or expired refresh token");
         }
-        return token;
     }
 
-    public RefreshToken getValidRefreshTokenOrThrow(String token) {
-        return refreshTokenRepository.findByToken(token)
-                .map(this::verifyExpiration)
-                .orElseThrow(() -> new RefreshTokenException("Invalid or expired refresh token"));
+    // 256 random bits, URL-safe so clients can pass it around without escaping
+    private static String newRawToken(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return userId + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 
+    static byte[] hash(String rawToken) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
 }
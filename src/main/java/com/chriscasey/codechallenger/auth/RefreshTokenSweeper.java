@@ -0,0 +1,77 @@
+package com.chriscasey.codechallenger.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired refresh tokens in bounded batches, each in its own short transaction, so a
+ * large backlog never turns into one long-running delete. Also tracks the table size for
+ * metrics; the count is refreshed once per sweep rather than on every scrape.
+ */
+@Slf4j
+@Component
+public class RefreshTokenSweeper {
+
+    private final RefreshTokenRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter swept;
+    private final AtomicLong rows = new AtomicLong();
+
+    public RefreshTokenSweeper(
+            RefreshTokenRepository repository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.refresh-token.sweep.batch-size:500}") int batchSize,
+            @Value("${app.refresh-token.sweep.max-batches:100}") int maxBatchesPerRun
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+        this.swept = Counter.builder("auth.refresh_tokens.swept")
+                .description("Expired refresh tokens deleted by the sweeper")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh_tokens.rows", rows, AtomicLong::get)
+                .description("Rows in refresh_token as of the last sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.refresh-token.sweep.initial-delay-ms:60000}",
+            fixedDelayString = "${app.refresh-token.sweep.interval-ms:600000}"
+    )
+    public void sweep() {
+        Instant now = Instant.now();
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = repository.findExpiredIds(now, PageRequest.of(0, batchSize));
+                return ids.isEmpty() ? 0 : repository.deleteByIdIn(ids);
+            });
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        swept.increment(total);
+        rows.set(repository.count());
+        if (total > 0) {
+            log.debug("Swept {} expired refresh tokens", total);
+        }
+    }
+}
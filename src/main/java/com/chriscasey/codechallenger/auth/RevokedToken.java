@@ -0,0 +1,36 @@
+package com.chriscasey.codechallenger.auth;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Persisted revocation, replayed into the in-memory deny list at startup. A row either revokes
+ * one access token ({@code jti}) or every token of a user issued before {@code revokedAt}.
+ */
+@Entity
+@Table(name = "revoked_token",
+        indexes = @Index(name = "idx_revoked_token_expires", columnList = "expires_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    // After this no token covered by the row can still be valid, so the row can be dropped
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@EntityListeners(UserEntityListener.class)
 @Table(name = "users")
 @Data
 @Builder
@@ -0,0 +1,107 @@
+package com.chriscasey.codechallenger.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of users by email and by id.
+ * <p>
+ * Entries are private snapshots and every lookup returns a fresh detached copy, so callers
+ * (e.g. a {@code @CurrentUser} principal) can never mutate shared state. Entries are evicted
+ * once a change to the user row commits; absent users are not cached.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> byEmail;
+    private final Cache<Long, User> byId;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.user-cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.user-cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.byEmail = newCache(maximumSize, ttlSeconds);
+        this.byId = newCache(maximumSize, ttlSeconds);
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.by-email");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+    }
+
+    public Optional<User> findByEmail(String email) {
+        User cached = byEmail.get(email, key -> load(() -> userRepository.findByEmail(key), byId, User::getId));
+        return Optional.ofNullable(cached).map(UserCache::copyOf);
+    }
+
+    public Optional<User> findById(Long id) {
+        User cached = byId.get(id, key -> load(() -> userRepository.findById(key), byEmail, User::getEmail));
+        return Optional.ofNullable(cached).map(UserCache::copyOf);
+    }
+
+    public void evict(Long userId, String email) {
+        // Before invalidating, so a load that overlaps this eviction sees the change
+        evictions.incrementAndGet();
+        if (userId != null) {
+            // The email may have changed; drop whatever key the old snapshot was cached under
+            User previous = byId.getIfPresent(userId);
+            if (previous != null) {
+                byEmail.invalidate(previous.getEmail());
+            }
+            byId.invalidate(userId);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    // After commit so a concurrent reader cannot re-cache the pre-change row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.userId(), event.email());
+    }
+
+    /**
+     * Runs inside the cache's own compute, which an eviction of the same key waits for. The
+     * snapshot is also put into the other cache, but only if no eviction landed since the load
+     * started: that put is not covered by the compute and could re-insert a stale row.
+     */
+    private <K> User load(Supplier<Optional<User>> query, Cache<K, User> other, Function<User, K> otherKey) {
+        long generation = evictions.get();
+        User loaded = query.get().map(UserCache::copyOf).orElse(null);
+        if (loaded != null) {
+            K key = otherKey.apply(loaded);
+            other.put(key, loaded);
+            // Checked after the put: an eviction between the check and the put would miss it
+            if (evictions.get() != generation) {
+                other.asMap().remove(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private static <K> Cache<K, User> newCache(long maximumSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
+    }
+}
@@ -0,0 +1,6 @@
+package com.chriscasey.codechallenger.auth;
+
+/**
+ * Published after a {@link User} row is updated or deleted (e.g. password or role change).
+ */
+public record UserChangedEvent(Long userId, String email) {}
@@ -1,9 +1,22 @@
 package com.chriscasey.codechallenger.auth;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    // Keyset pagination over users.id; the Pageable only supplies the limit
+    @Query("select new com.chriscasey.codechallenger.auth.UserSummary(u.id, u.email) "
+            + "from User u where u.id > :cursor order by u.id asc")
+    List<UserSummary> findSummariesAfter(@Param("cursor") long cursor, Pageable limit);
+
+    @Query("select new com.chriscasey.codechallenger.auth.UserSummary(u.id, u.email) "
+            + "from User u where u.id < :cursor order by u.id desc")
+    List<UserSummary> findSummariesBefore(@Param("cursor") long cursor, Pageable limit);
 }
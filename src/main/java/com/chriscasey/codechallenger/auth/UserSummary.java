@@ -0,0 +1,4 @@
+package com.chriscasey.codechallenger.auth;
+
+// Projection for listings that only need identity columns
+public record UserSummary(Long id, String email) {}
@@ -0,0 +1,159 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persistent, deduplicated store of generated challenges shared by all users.
+ * <p>
+ * Users are served catalog entries they have not been assigned before; the LLM is only
+ * called (in the background) once a user's unseen set for a difficulty falls below
+ * {@code app.challenge-catalog.min-unseen}, or inline when nothing unseen is left.
+ */
+@Slf4j
+@Component
+public class ChallengeCatalog {
+
+    private static final int MAX_DIFFICULTY = 5;
+
+    private final ChallengeCatalogRepository repository;
+    private final ChallengeSource generator;
+    private final Executor topUpExecutor;
+    private final TransactionTemplate newTransaction;
+    private final int minUnseen;
+    private final int topUpSize;
+
+    // At most one top-up in flight per difficulty
+    private final AtomicBoolean[] toppingUp = new AtomicBoolean[MAX_DIFFICULTY + 1];
+
+    public ChallengeCatalog(
+            ChallengeCatalogRepository repository,
+            ChallengeSource generator,
+            @Qualifier("challengePoolExecutor") Executor topUpExecutor,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.challenge-catalog.min-unseen:3}") int minUnseen,
+            @Value("${app.challenge-catalog.top-up-size:5}") int topUpSize
+    ) {
+        this.repository = repository;
+        this.generator = generator;
+        this.topUpExecutor = topUpExecutor;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.minUnseen = Math.max(0, minUnseen);
+        this.topUpSize = topUpSize;
+        for (int d = 0; d <= MAX_DIFFICULTY; d++) {
+            toppingUp[d] = new AtomicBoolean();
+        }
+    }
+
+    /**
+     * An entry of this difficulty the user has not been assigned yet, or empty if none is left.
+     * Schedules a background top-up when the user's unseen set is running low.
+     */
+    public Optional<ChallengeCatalogEntry> findUnseen(Long userId, int difficulty) {
+        // Fetching min-unseen + 1 rows is enough to tell whether the set is running low
+        List<ChallengeCatalogEntry> unseen = repository.findUnseen(userId, difficulty, PageRequest.of(0, minUnseen + 1));
+        if (unseen.size() - 1 < minUnseen) {
+            scheduleTopUp(difficulty);
+        }
+        return unseen.stream().findFirst();
+    }
+
+    /**
+     * Store a freshly generated challenge, or return the existing entry with the same content.
+     * Runs in its own transaction so a concurrent duplicate insert doesn't fail the caller.
+     */
+    public ChallengeCatalogEntry register(GeneratedChallenge generated, int difficulty) {
+        String hash = contentHash(generated.title(), generated.description());
+        Optional<ChallengeCatalogEntry> existing = repository.findByContentHash(hash);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        ChallengeCatalogEntry entry = ChallengeCatalogEntry.builder()
+                .contentHash(hash)
+                .title(generated.title())
+                .description(generated.description())
+                .solution(generated.solution())
+                .difficulty(difficulty)
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            return newTransaction.execute(status -> repository.save(entry));
+        } catch (DataIntegrityViolationException ex) {
+            // The same content was registered concurrently
+            return repository.findByContentHash(hash).orElseThrow(() -> ex);
+        }
+    }
+
+    // Case, Unicode form and whitespace differences don't make a challenge new
+    static String contentHash(String title, String description) {
+        String normalized = normalize(title) + "\n" + normalize(description);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    private void scheduleTopUp(int difficulty) {
+        if (difficulty < 1 || difficulty > MAX_DIFFICULTY || topUpSize <= 0) {
+            return;
+        }
+        AtomicBoolean flag = toppingUp[difficulty];
+        if (!flag.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            topUpExecutor.execute(() -> topUp(difficulty));
+        } catch (TaskRejectedException ex) {
+            flag.set(false);
+            log.warn("Challenge catalog top-up for difficulty {} rejected: {}", difficulty, ex.getMessage());
+        }
+    }
+
+    private void topUp(int difficulty) {
+        try {
+            for (GeneratedChallenge generated : generator.generateBatch(difficulty, topUpSize)) {
+                register(generated, difficulty);
+            }
+        } catch (RuntimeException ex) {
+            // Whatever was registered stays; the next low read triggers another top-up
+            log.warn("Challenge catalog top-up for difficulty {} failed: {}", difficulty, ex.getMessage());
+        } finally {
+            toppingUp[difficulty].set(false);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.chriscasey.codechallenger.challenge;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A generated challenge kept for reuse across users. Identical content (after
+ * normalization, see {@link ChallengeCatalog#contentHash}) is stored once.
+ */
+@Entity
+@Table(
+        name = "challenge_catalog",
+        indexes = @Index(name = "idx_catalog_difficulty", columnList = "difficulty"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_catalog_content_hash", columnNames = "content_hash")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChallengeCatalogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Hex SHA-256 of the normalized title and description
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String description;
+
+    @Column(nullable = false)
+    private int solution;
+
+    @Column(nullable = false)
+    private int difficulty;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
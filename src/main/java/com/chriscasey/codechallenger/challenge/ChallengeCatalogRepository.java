@@ -0,0 +1,22 @@
+package com.chriscasey.codechallenger.challenge;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ChallengeCatalogRepository extends JpaRepository<ChallengeCatalogEntry, Long> {
+
+    Optional<ChallengeCatalogEntry> findByContentHash(String contentHash);
+
+    // Entries of this difficulty the user has never been assigned, oldest first
+    @Query("select e from ChallengeCatalogEntry e where e.difficulty = :difficulty and not exists ("
+            + "select 1 from CodeChallenge c where c.user.id = :userId and c.catalogEntryId = e.id) "
+            + "order by e.id")
+    List<ChallengeCatalogEntry> findUnseen(@Param("userId") Long userId,
+                                           @Param("difficulty") int difficulty,
+                                           Pageable limit);
+}
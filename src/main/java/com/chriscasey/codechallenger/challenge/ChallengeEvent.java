@@ -0,0 +1,17 @@
+package com.chriscasey.codechallenger.challenge;
+
+/**
+ * Published inside the transaction of every challenge status transition; listeners that
+ * need committed state should use {@code @TransactionalEventListener}.
+ */
+public record ChallengeEvent(Type type, Long userId, int difficulty) {
+
+    public enum Type {
+        CREATED,
+        // A GENERATING placeholder removed after a failed generation; cancels its CREATED
+        DISCARDED,
+        COMPLETED,
+        SKIPPED,
+        FAILED_ATTEMPT
+    }
+}
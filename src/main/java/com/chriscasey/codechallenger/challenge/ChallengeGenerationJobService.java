@@ -0,0 +1,180 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.auth.User;
+import com.chriscasey.codechallenger.challenge.dto.CodeChallengeResponse;
+import com.chriscasey.codechallenger.challenge.dto.GenerationJobResponse;
+import com.chriscasey.codechallenger.exception.ChallengeGenerationBusyException;
+import com.chriscasey.codechallenger.exception.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Tracks asynchronous challenge generation jobs. Each job owns a GENERATING placeholder
+ * challenge; clients poll the job or subscribe to it through Server-Sent Events.
+ * Job state lives in memory and is dropped after the retention period.
+ */
+@Slf4j
+@Service
+public class ChallengeGenerationJobService {
+
+    private final CodeChallengeService challengeService;
+    private final Executor executor;
+    private final Duration retention;
+    private final long emitterTimeoutMs;
+    private final Duration jobTimeout;
+
+    private static final long REJECTED_RETRY_AFTER_SECONDS = 5;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ChallengeGenerationJobService(
+            CodeChallengeService challengeService,
+            @Qualifier("challengeGenerationExecutor") Executor executor,
+            @Value("${app.challenge-generation.job-retention-minutes:10}") long retentionMinutes,
+            @Value("${app.challenge-generation.sse-timeout-ms:120000}") long emitterTimeoutMs,
+            @Value("${app.challenge-generation.job-timeout-ms:300000}") long jobTimeoutMs
+    ) {
+        this.challengeService = challengeService;
+        this.executor = executor;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.jobTimeout = Duration.ofMillis(jobTimeoutMs);
+    }
+
+    public GenerationJobResponse submit(User user, Integer overrideDifficulty) {
+        CodeChallenge placeholder = challengeService.reservePlaceholder(user, overrideDifficulty);
+        Job job = new Job(UUID.randomUUID().toString(), user.getId(), placeholder.getId());
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (TaskRejectedException ex) {
+            // The job never existed for the client: give the slot back and shed the request
+            log.warn("Challenge generation job {} rejected: {}", job.id, ex.getMessage());
+            challengeService.tryDiscardPlaceholder(job.challengeId);
+            throw new ChallengeGenerationBusyException(
+                    "Challenge generation is overloaded, please retry shortly", REJECTED_RETRY_AFTER_SECONDS);
+        }
+        // The id is only handed out below, so registering after a finished run is still in time
+        jobs.put(job.id, job);
+        return job.toResponse();
+    }
+
+    public GenerationJobResponse get(User user, String jobId) {
+        return findOwned(user, jobId).toResponse();
+    }
+
+    public SseEmitter subscribe(User user, String jobId) {
+        Job job = findOwned(user, jobId);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+
+        job.emitters.add(emitter);
+        // The job may have finished before the emitter was registered
+        if (job.status != GenerationJobStatus.RUNNING) {
+            notifyEmitters(job);
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.challenge-generation.cleanup-interval-ms:60000}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    // Jobs live in memory only: placeholders of jobs lost in a restart (or stuck past the
+    // timeout) would otherwise hold a pending slot forever. Runs at startup, then periodically.
+    @Scheduled(initialDelayString = "${app.challenge-generation.placeholder-sweep-initial-delay-ms:0}",
+            fixedDelayString = "${app.challenge-generation.placeholder-sweep-interval-ms:60000}")
+    public void discardStalePlaceholders() {
+        int discarded = challengeService.discardStalePlaceholders(LocalDateTime.now().minus(jobTimeout));
+        if (discarded > 0) {
+            log.info("Discarded {} stale GENERATING placeholders", discarded);
+        }
+    }
+
+    private void run(Job job) {
+        try {
+            CodeChallengeResponse result = challengeService.completePlaceholder(job.challengeId);
+            job.finish(GenerationJobStatus.COMPLETED, result, null);
+        } catch (RuntimeException ex) {
+            log.warn("Challenge generation job {} failed: {}", job.id, ex.getMessage());
+            job.finish(GenerationJobStatus.FAILED, null, "Challenge generation failed");
+        }
+        notifyEmitters(job);
+    }
+
+    private void notifyEmitters(Job job) {
+        GenerationJobResponse payload = job.toResponse();
+        String eventName = payload.status().name().toLowerCase();
+        for (SseEmitter emitter : job.emitters) {
+            // remove() succeeds for exactly one thread, so each emitter is completed once
+            if (!job.emitters.remove(emitter)) {
+                continue;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(payload));
+                emitter.complete();
+            } catch (IOException | IllegalStateException ex) {
+                emitter.completeWithError(ex);
+            }
+        }
+    }
+
+    private Job findOwned(User user, String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !Objects.equals(job.userId, user.getId())) {
+            throw new NotFoundException("Generation job not found");
+        }
+        return job;
+    }
+
+    private static final class Job {
+        private final String id;
+        private final Long userId;
+        private final Long challengeId;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        private volatile GenerationJobStatus status = GenerationJobStatus.RUNNING;
+        private volatile CodeChallengeResponse result;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private Job(String id, Long userId, Long challengeId) {
+            this.id = id;
+            this.userId = userId;
+            this.challengeId = challengeId;
+        }
+
+        private void finish(GenerationJobStatus finalStatus, CodeChallengeResponse result, String error) {
+            this.result = result;
+            this.error = error;
+            this.finishedAt = Instant.now();
+            // Written last so readers that observe a final status also see the result
+            this.status = finalStatus;
+        }
+
+        private GenerationJobResponse toResponse() {
+            GenerationJobStatus current = status;
+            return new GenerationJobResponse(id, current, challengeId, result, error);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffer of ready-to-assign challenges per difficulty (1-5), refilled in the background
+ * so request threads only pay for a DB insert. When a bucket drops below the low watermark
+ * a refill task tops it back up to the high watermark.
+ */
+@Slf4j
+@Component
+public class ChallengePool {
+
+    private static final int MIN_DIFFICULTY = 1;
+    private static final int MAX_DIFFICULTY = 5;
+    // Bounds LLM calls per refill when batches keep coming back short
+    private static final int MAX_REFILL_PASSES = 3;
+
+    private final ChallengeSource generator;
+    private final Executor refillExecutor;
+    private final boolean enabled;
+    private final int lowWatermark;
+    private final int highWatermark;
+
+    private final Bucket[] buckets = new Bucket[MAX_DIFFICULTY + 1];
+
+    public ChallengePool(
+            ChallengeSource generator,
+            @Qualifier("challengePoolExecutor") Executor refillExecutor,
+            @Value("${app.challenge-pool.enabled:false}") boolean enabled,
+            @Value("${app.challenge-pool.low-watermark:2}") int lowWatermark,
+            @Value("${app.challenge-pool.high-watermark:5}") int highWatermark
+    ) {
+        if (lowWatermark < 0 || highWatermark < lowWatermark) {
+            throw new IllegalArgumentException("Challenge pool watermarks must satisfy 0 <= low <= high");
+        }
+        this.generator = generator;
+        this.refillExecutor = refillExecutor;
+        this.enabled = enabled;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        for (int d = MIN_DIFFICULTY; d <= MAX_DIFFICULTY; d++) {
+            buckets[d] = new Bucket(d);
+        }
+    }
+
+    /**
+     * Take a pre-generated challenge for the given difficulty, or empty if the bucket is
+     * drained (callers fall back to inline generation).
+     */
+    public Optional<GeneratedChallenge> take(int difficulty) {
+        if (!enabled || difficulty < MIN_DIFFICULTY || difficulty > MAX_DIFFICULTY) {
+            return Optional.empty();
+        }
+        Bucket bucket = buckets[difficulty];
+        GeneratedChallenge next = bucket.items.poll();
+        if (next != null) {
+            bucket.size.decrementAndGet();
+        }
+        if (bucket.size.get() < lowWatermark) {
+            scheduleRefill(bucket);
+        }
+        return Optional.ofNullable(next);
+    }
+
+    public int size(int difficulty) {
+        return buckets[difficulty].size.get();
+    }
+
+    // Periodic safety net: also covers startup warm-up and buckets that failed to refill
+    @Scheduled(
+            initialDelayString = "${app.challenge-pool.initial-delay-ms:0}",
+            fixedDelayString = "${app.challenge-pool.refill-interval-ms:30000}"
+    )
+    public void refillBelowLowWatermark() {
+        if (!enabled) {
+            return;
+        }
+        for (int d = MIN_DIFFICULTY; d <= MAX_DIFFICULTY; d++) {
+            if (buckets[d].size.get() < lowWatermark) {
+                scheduleRefill(buckets[d]);
+            }
+        }
+    }
+
+    private void scheduleRefill(Bucket bucket) {
+        // At most one refill in flight per bucket
+        if (!bucket.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> refill(bucket));
+        } catch (TaskRejectedException ex) {
+            bucket.refilling.set(false);
+            log.warn("Challenge pool refill for difficulty {} rejected: {}", bucket.difficulty, ex.getMessage());
+        }
+    }
+
+    private void refill(Bucket bucket) {
+        try {
+            // One batched completion per pass; a partial batch just means another pass, an empty
+            // one ends the refill until the next scheduled check
+            for (int pass = 0; pass < MAX_REFILL_PASSES; pass++) {
+                int missing = highWatermark - bucket.size.get();
+                if (missing <= 0) {
+                    break;
+                }
+                List<GeneratedChallenge> batch = generator.generateBatch(bucket.difficulty, missing);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (GeneratedChallenge generated : batch) {
+                    bucket.items.offer(generated);
+                    bucket.size.incrementAndGet();
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Leave the bucket partially filled; the next scheduled pass retries
+            log.warn("Challenge pool refill for difficulty {} failed: {}", bucket.difficulty, ex.getMessage());
+        } finally {
+            bucket.refilling.set(false);
+        }
+    }
+
+    private static final class Bucket {
+        private final int difficulty;
+        private final Queue<GeneratedChallenge> items = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+
+        private Bucket(int difficulty) {
+            this.difficulty = difficulty;
+        }
+    }
+}
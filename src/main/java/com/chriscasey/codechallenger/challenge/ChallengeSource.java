@@ -0,0 +1,28 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where new challenges come from. Selected by {@code app.challenge-source.primary}, with an
+ * optional {@code app.challenge-source.fallback} used when the primary fails
+ * (see {@link ChallengeSourceConfig}).
+ */
+public interface ChallengeSource {
+
+    // Matches the values accepted by app.challenge-source.primary / fallback
+    String name();
+
+    GeneratedChallenge generate(int difficulty);
+
+    // Sources that can produce several challenges in one call should override this
+    default List<GeneratedChallenge> generateBatch(int difficulty, int count) {
+        List<GeneratedChallenge> batch = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, count); i++) {
+            batch.add(generate(difficulty));
+        }
+        return batch;
+    }
+}
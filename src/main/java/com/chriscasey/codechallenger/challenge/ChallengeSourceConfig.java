@@ -0,0 +1,47 @@
+package com.chriscasey.codechallenger.challenge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+
+/**
+ * Picks the {@link ChallengeSource} injected everywhere else. {@code procedural} needs no
+ * network or API key, which makes it suitable for offline load tests and as a fallback tier.
+ */
+@Slf4j
+@Configuration
+public class ChallengeSourceConfig {
+
+    @Bean
+    @Primary
+    public ChallengeSource challengeSource(
+            CodeChallengeGenerator openAiSource,
+            ProceduralChallengeSource proceduralSource,
+            @Value("${app.challenge-source.primary:openai}") String primaryName,
+            @Value("${app.challenge-source.fallback:none}") String fallbackName
+    ) {
+        List<ChallengeSource> sources = List.of(openAiSource, proceduralSource);
+        ChallengeSource primary = byName(sources, primaryName);
+        if ("none".equalsIgnoreCase(fallbackName) || fallbackName.isBlank()) {
+            log.info("Challenge source: {}", primary.name());
+            return primary;
+        }
+        ChallengeSource fallback = byName(sources, fallbackName);
+        if (fallback == primary) {
+            throw new IllegalStateException("app.challenge-source.fallback must differ from the primary source");
+        }
+        log.info("Challenge source: {} (fallback: {})", primary.name(), fallback.name());
+        return new FallbackChallengeSource(primary, fallback);
+    }
+
+    private static ChallengeSource byName(List<ChallengeSource> sources, String name) {
+        return sources.stream()
+                .filter(source -> source.name().equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown challenge source '" + name + "'"));
+    }
+}
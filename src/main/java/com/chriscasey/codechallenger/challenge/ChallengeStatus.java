@@ -5,5 +5,6 @@ public enum ChallengeStatus {
     COMPLETED,
     FAILED,
     SKIPPED,
-    PENDING
+    PENDING,
+    GENERATING
 }
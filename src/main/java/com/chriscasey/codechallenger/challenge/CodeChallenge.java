@@ -3,15 +3,19 @@ package com.chriscasey.codechallenger.challenge;
 import com.chriscasey.codechallenger.auth.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate // last_attempt_time is written by the cooldown store; don't overwrite it on other updates
 @Table(
         name = "code_challenge",
         indexes = {
                 @Index(name = "idx_challenge_user", columnList = "user_id"),
-                @Index(name = "idx_challenge_user_status", columnList = "user_id,status")
+                @Index(name = "idx_challenge_user_status", columnList = "user_id,status"),
+                @Index(name = "idx_challenge_user_catalog", columnList = "user_id,catalog_entry_id")
         }
 )
 @Getter
@@ -49,10 +53,19 @@ public class CodeChallenge {
 
     private LocalDateTime completedAt;
 
+    // Lets the placeholder sweep find GENERATING rows whose job never finished; null on older rows
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 32)
     private ChallengeStatus status;
 
+    // Catalog entry this challenge was assigned from; null for challenges created before the catalog
+    @Column(name = "catalog_entry_id")
+    private Long catalogEntryId;
+
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -2,6 +2,7 @@ package com.chriscasey.codechallenger.challenge;
 
 import com.chriscasey.codechallenger.auth.User;
 import com.chriscasey.codechallenger.challenge.dto.CodeChallengeResponse;
+import com.chriscasey.codechallenger.challenge.dto.GenerationJobResponse;
 import com.chriscasey.codechallenger.challenge.dto.SubmitChallengeRequest;
 import com.chriscasey.codechallenger.challenge.mapper.CodeChallengeMapper;
 import com.chriscasey.codechallenger.security.CurrentUser;
@@ -20,6 +21,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
 import java.util.List;
@@ -33,6 +35,7 @@ import java.util.List;
 public class CodeChallengeController {
 
     private final CodeChallengeService service;
+    private final ChallengeGenerationJobService generationJobService;
 
     @Operation(summary = "Get all challenges for the current user")
     @ApiResponses(value = {
@@ -107,4 +110,52 @@ public class CodeChallengeController {
         URI location = URI.create("/api/challenges/" + response.id());
         return ResponseEntity.created(location).body(response);
     }
+
+    @Operation(
+            summary = "Start generating a new code challenge asynchronously",
+            description = "Reserves a GENERATING challenge and returns immediately with a job id. "
+                    + "Poll the job or subscribe to its events for completion."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Generation started"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping(value = "/generate", params = "async=true")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<GenerationJobResponse> generateChallengeAsync(
+            @Parameter(hidden = true) @CurrentUser User user,
+            @Parameter(description = "Optional explicit difficulty")
+            @RequestParam(required = false) @Min(1) @Max(5) Integer difficulty
+    ) {
+        GenerationJobResponse job = generationJobService.submit(user, difficulty);
+        URI location = URI.create("/api/challenges/generate/jobs/" + job.jobId());
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @Operation(summary = "Get the status of an asynchronous generation job")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Job status returned"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @GetMapping("/generate/jobs/{jobId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<GenerationJobResponse> getGenerationJob(
+            @PathVariable String jobId,
+            @Parameter(hidden = true) @CurrentUser User user
+    ) {
+        return ResponseEntity.ok(generationJobService.get(user, jobId));
+    }
+
+    @Operation(
+            summary = "Subscribe to an asynchronous generation job",
+            description = "Server-Sent Events stream that emits a single 'completed' or 'failed' event."
+    )
+    @GetMapping(value = "/generate/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public SseEmitter subscribeToGenerationJob(
+            @PathVariable String jobId,
+            @Parameter(hidden = true) @CurrentUser User user
+    ) {
+        return generationJobService.subscribe(user, jobId);
+    }
 }
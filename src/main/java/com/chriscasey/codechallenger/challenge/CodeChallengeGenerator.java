@@ -1,24 +1,44 @@
 package com.chriscasey.codechallenger.challenge;
 
 import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import com.chriscasey.codechallenger.exception.LlmParseException;
 import com.chriscasey.codechallenger.llm.OpenAiResponsesClient;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+// The OpenAI-backed ChallengeSource
+@Slf4j
 @Component
 @RequiredArgsConstructor
-public class CodeChallengeGenerator {
+public class CodeChallengeGenerator implements ChallengeSource {
 
     private static final Pattern CODE_FENCE_PATTERN = Pattern.compile("(?s)```(?:json)?\\s*(\\{.*?\\})\\s*```");
+    private static final Pattern ANY_CODE_FENCE_PATTERN = Pattern.compile("(?s)```(?:json)?\\s*(.*?)\\s*```");
+
+    // Keeps a single completion's output well under typical token limits
+    static final int MAX_BATCH_SIZE = 10;
 
     private final OpenAiResponsesClient openAi;
     private final ObjectMapper objectMapper;
 
+    @Override
+    public String name() {
+        return "openai";
+    }
+
+    @Override
     public GeneratedChallenge generate(int difficulty) {
         int safeDifficulty = clampDifficulty(difficulty);
 
@@ -49,15 +69,88 @@ public class CodeChallengeGenerator {
         try {
             parsed = objectMapper.readTree(cleaned);
         } catch (Exception ex) {
-            throw new com.chriscasey.codechallenger.exception.LlmParseException(
+            throw new LlmParseException(
                     "Failed to parse LLM JSON", cleaned, ex
             );
         }
 
-        String title = reqText(parsed, "title", cleaned);
-        String description = reqText(parsed, "description", cleaned);
-        int solution = reqInt(parsed, "solution", cleaned);
-        int outDifficulty = parsed.has("difficulty") ? reqInt(parsed, "difficulty", cleaned) : safeDifficulty;
+        return toChallenge(parsed, safeDifficulty, cleaned);
+    }
+
+    /**
+     * Generate up to {@code count} distinct puzzles with a single completion, so the prompt
+     * and round trip are paid once. Elements are validated individually: invalid ones are
+     * dropped, and only a batch with no valid element fails. {@code count} is capped at
+     * {@link #MAX_BATCH_SIZE}.
+     */
+    @Override
+    public List<GeneratedChallenge> generateBatch(int difficulty, int count) {
+        int safeDifficulty = clampDifficulty(difficulty);
+        int size = Math.max(1, Math.min(count, MAX_BATCH_SIZE));
+        if (size == 1) {
+            return List.of(generate(safeDifficulty));
+        }
+
+        String system = """
+            You generate language-agnostic programming puzzles.
+
+            Return ONLY a JSON array of puzzle objects. Each object has EXACTLY these fields:
+            - title (string)
+            - description (string)
+            - solution (integer)
+            - difficulty (integer)
+
+            Every puzzle must be different from the others.
+            No code fences, no extra keys, no surrounding text. Output JSON array ONLY.
+            """;
+
+        String user = """
+            Create %d puzzles at difficulty %d out of 5.
+            Theme: arrays, loops, and simple math.
+            Ensure each answer is a single integer.
+            """.formatted(size, safeDifficulty);
+
+        JsonNode resp = openAi.createResponse(system, user);
+        String cleaned = unfence(extractText(resp));
+
+        JsonNode parsed = readFirstJsonValue(cleaned);
+        if (parsed == null) {
+            throw new LlmParseException("Failed to parse LLM JSON", cleaned, null);
+        }
+
+        // Tolerate a model that answers with a single object instead of an array
+        List<JsonNode> elements = new ArrayList<>();
+        if (parsed.isArray()) {
+            parsed.forEach(elements::add);
+        } else if (parsed.isObject()) {
+            elements.add(parsed);
+        }
+
+        List<GeneratedChallenge> challenges = new ArrayList<>(size);
+        for (JsonNode element : elements) {
+            if (challenges.size() == size) {
+                break;
+            }
+            try {
+                challenges.add(toChallenge(element, safeDifficulty, element.toString()));
+            } catch (LlmParseException ex) {
+                log.warn("Dropping invalid puzzle from LLM batch: {}", ex.getMessage());
+            }
+        }
+        if (challenges.isEmpty()) {
+            throw new LlmParseException("LLM batch contained no valid puzzles", cleaned, null);
+        }
+        return challenges;
+    }
+
+    private GeneratedChallenge toChallenge(JsonNode parsed, int safeDifficulty, String raw) {
+        if (parsed == null || !parsed.isObject()) {
+            throw new LlmParseException("LLM JSON is not an object", raw, null);
+        }
+        String title = reqText(parsed, "title", raw);
+        String description = reqText(parsed, "description", raw);
+        int solution = reqInt(parsed, "solution", raw);
+        int outDifficulty = parsed.has("difficulty") ? reqInt(parsed, "difficulty", raw) : safeDifficulty;
 
         return new GeneratedChallenge(title, description, solution, outDifficulty);
     }
@@ -90,6 +183,11 @@ public class CodeChallengeGenerator {
     // Remove typical markdown code fences and keep the first JSON object if present.
     private String cleanContent(String content) {
         if (content == null) return "";
+        // Fast path: streamed responses already arrive as exactly one JSON value
+        String trimmed = content.trim();
+        if (trimmed.startsWith("{") && trimmed.endsWith("}")) {
+            return trimmed;
+        }
         Matcher m = CODE_FENCE_PATTERN.matcher(content);
         if (m.find()) {
             return m.group(1);
@@ -104,6 +202,52 @@ public class CodeChallengeGenerator {
         return content.trim();
     }
 
+    // Body of the first code fence, or the whole reply when it has none
+    private String unfence(String content) {
+        if (content == null) return "";
+        Matcher m = ANY_CODE_FENCE_PATTERN.matcher(content);
+        return m.find() ? m.group(1) : content.trim();
+    }
+
+    /**
+     * Parses the first complete JSON array or object in the text, skipping leading prose. Brackets
+     * inside strings (e.g. a description mentioning "[1, 2, 3]") are handled by the parser, and
+     * anything after the value is ignored. Null if no bracket starts a valid value.
+     */
+    private JsonNode readFirstJsonValue(String text) {
+        int start = nextOpener(text, 0);
+        while (start >= 0) {
+            StringReader reader = new StringReader(text);
+            try (JsonParser parser = objectMapper.getFactory().createParser(reader)) {
+                reader.skip(start);
+                return objectMapper.readTree(parser);
+            } catch (IOException ex) {
+                // Everything before the error was valid JSON, so look for the next bracket from the
+                // offending character rather than after this one; each character is parsed about once
+                start = nextOpener(text, start + failureOffset(ex));
+            }
+        }
+        return null;
+    }
+
+    // Offset of the offending character from where the parser started; at least 1 so the search moves on
+    private static int failureOffset(IOException ex) {
+        long offset = (ex instanceof JsonProcessingException parse && parse.getLocation() != null)
+                ? parse.getLocation().getCharOffset() - 1
+                : -1;
+        return (int) Math.max(1, offset);
+    }
+
+    private static int nextOpener(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private int clampDifficulty(int difficulty) {
         if (difficulty < 1) return 1;
         if (difficulty > 5) return 5;
@@ -115,7 +259,7 @@ public class CodeChallengeGenerator {
     private static String reqText(JsonNode obj, String field, String raw) {
         JsonNode v = obj.get(field);
         if (v == null || v.isNull() || !v.isTextual()) {
-            throw new com.chriscasey.codechallenger.exception.LlmParseException(
+            throw new LlmParseException(
                     "LLM JSON missing string field '" + field + "'", raw, null
             );
         }
@@ -125,7 +269,7 @@ public class CodeChallengeGenerator {
     private static int reqInt(JsonNode obj, String field, String raw) {
         JsonNode v = obj.get(field);
         if (v == null || v.isNull() || !v.canConvertToInt()) {
-            throw new com.chriscasey.codechallenger.exception.LlmParseException(
+            throw new LlmParseException(
                     "LLM JSON missing integer field '" + field + "'", raw, null
             );
         }
@@ -2,23 +2,32 @@ package com.chriscasey.codechallenger.challenge;
 
 import com.chriscasey.codechallenger.auth.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface CodeChallengeRepository extends JpaRepository<CodeChallenge, Long> {
-    long countByUserAndStatus(User user, ChallengeStatus status);
-
     Optional<CodeChallenge> findByIdAndUser(Long challengeId, User user);
 
     List<CodeChallenge> findByUser(User user);
 
-    // Fetch challenges for multiple users to avoid N+1 in admin listing
-    List<CodeChallenge> findByUserIn(List<User> users);
+    boolean existsByUserIdAndCatalogEntryId(Long userId, Long catalogEntryId);
 
-    // Or if you want to be more explicit, add this method:
-    default long countIncompleteByUser(User user) {
-        return countByUserAndStatus(user, ChallengeStatus.PENDING);
-    }
+    // Rows without created_at predate the column and are treated as old
+    @Query("select c.id from CodeChallenge c where c.status = :status "
+            + "and (c.createdAt is null or c.createdAt < :cutoff)")
+    List<Long> findIdsByStatusCreatedBefore(@Param("status") ChallengeStatus status,
+                                            @Param("cutoff") LocalDateTime cutoff);
 
+    // Write-behind target for the cooldown store; never moves the timestamp backwards
+    @Modifying
+    @Transactional
+    @Query("update CodeChallenge c set c.lastAttemptTime = :time "
+            + "where c.id = :id and (c.lastAttemptTime is null or c.lastAttemptTime < :time)")
+    int updateLastAttemptTime(@Param("id") Long id, @Param("time") LocalDateTime time);
 }
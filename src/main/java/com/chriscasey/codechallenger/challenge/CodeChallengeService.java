@@ -4,25 +4,42 @@ import com.chriscasey.codechallenger.auth.User;
 import com.chriscasey.codechallenger.challenge.dto.CodeChallengeResponse;
 import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
 import com.chriscasey.codechallenger.challenge.mapper.CodeChallengeMapper;
+import com.chriscasey.codechallenger.exception.LlmCallException;
 import com.chriscasey.codechallenger.exception.NotFoundException;
-import com.chriscasey.codechallenger.exception.SubmissionRateLimitException;
 import com.chriscasey.codechallenger.exception.TooManyChallengesException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CodeChallengeService {
 
     private final CodeChallengeRepository repository;
-    private final CodeChallengeGenerator generator;
+    private final ChallengeSource generator;
     private final SubmissionRateLimitService submissionRateLimitService;
+    private final ChallengePool challengePool;
+    private final TransactionTemplate transactionTemplate;
+    private final UserChallengeStatsService statsService;
+    private final ChallengeCatalog catalog;
 
     private static final int MAX_INCOMPLETE_CHALLENGES = 5;
+    // Inline generations per request once the user has seen every catalog entry of the difficulty
+    private static final int MAX_GENERATION_ATTEMPTS = 3;
+    private static final String PLACEHOLDER_TITLE = "Generating challenge...";
+
+    // Parallel generate/skip calls from one user (double clicks, client retries) share one execution
+    private final SingleFlight<FlightKey, CodeChallengeResponse> generateFlights = new SingleFlight<>();
+    private final SingleFlight<FlightKey, Boolean> skipFlights = new SingleFlight<>();
+
+    private record FlightKey(Long userId, Object argument) {}
 
     @Transactional(readOnly = true)
     public List<CodeChallenge> getAllForUser(User user) {
@@ -31,69 +48,213 @@ public class CodeChallengeService {
 
     @Transactional
     public CodeChallengeResponse submitAnswer(User user, Long challengeId, int answer) {
+        // Rejects attempts still in cooldown from memory, before any query
+        submissionRateLimitService.checkCooldown(user.getId(), challengeId);
+
         CodeChallenge challenge = (CodeChallenge) repository.findByIdAndUser(challengeId, user)
                 .orElseThrow(() -> new NotFoundException("Challenge not found"));
 
-        // Check rate limiting
-        if (!submissionRateLimitService.canSubmit(challenge)) {
-            long remainingMinutes = submissionRateLimitService.getRemainingCooldownMinutes(challenge);
-            throw new SubmissionRateLimitException(remainingMinutes);
-        }
-
         if (challenge.getStatus() != ChallengeStatus.PENDING) {
             throw new IllegalStateException("Challenge already completed or skipped");
         }
 
-        submissionRateLimitService.recordAttempt(challenge);
+        // Atomic check-and-record; last_attempt_time is written behind by the cooldown store
+        submissionRateLimitService.recordAttempt(user.getId(), challenge);
         if (challenge.getSolution() == answer) {
             challenge.setStatus(ChallengeStatus.COMPLETED);
             challenge.setCompletedAt(LocalDateTime.now());
+            statsService.recordCompleted(user.getId(), challenge.getDifficulty());
         } else {
             challenge.setFailedAttempts(challenge.getFailedAttempts() + 1);
+            statsService.recordFailedAttempt(user.getId(), challenge.getDifficulty());
         }
-        
+
         return CodeChallengeMapper.toResponse(challenge);
     }
 
-    @Transactional
+    /*
+     * Generation runs in three phases so no JDBC connection is held while waiting on the LLM:
+     * a short transaction validates (and, for new challenges, claims a pending slot),
+     * generation happens outside any transaction, and a second short transaction persists
+     * the result. If generation or persistence fails, a claimed slot is released again.
+     */
+
     public void skipChallenge(Long challengeId, User user) {
+        skipFlights.execute(new FlightKey(user.getId(), challengeId), () -> {
+            doSkipChallenge(challengeId, user);
+            return Boolean.TRUE;
+        });
+    }
+
+    private void doSkipChallenge(Long challengeId, User user) {
+        // Phase 1 only validates; nothing is changed until a replacement exists
+        int nextDifficulty = transactionTemplate.execute(status -> {
+            UserChallengeStats stats = statsService.load(user.getId());
+            requireSkippable(challengeId, user);
+            return determineDifficulty(stats);
+        });
+
+        ChallengeCatalogEntry generated = generate(user.getId(), nextDifficulty);
+
+        // Phase 2 marks the challenge SKIPPED and persists its replacement atomically, so a
+        // failed generation or persist leaves the original challenge PENDING
+        transactionTemplate.executeWithoutResult(status -> {
+            CodeChallenge challenge = requireSkippable(challengeId, user);
+            // Flushed at commit; the @Version check rejects a concurrent skip of the same challenge
+            challenge.setStatus(ChallengeStatus.SKIPPED);
+            challenge.setCompletedAt(LocalDateTime.now());
+            // The skipped challenge's pending slot is kept for its replacement
+            statsService.recordSkipped(user.getId(), challenge.getDifficulty());
+            persistChallenge(user, nextDifficulty, generated);
+        });
+    }
+
+    private CodeChallenge requireSkippable(Long challengeId, User user) {
         CodeChallenge challenge = (CodeChallenge) repository.findByIdAndUser(challengeId, user)
                 .orElseThrow(() -> new NotFoundException("Challenge not found or not owned by user"));
-
         if (challenge.getStatus() != ChallengeStatus.PENDING) {
             throw new IllegalStateException("Only pending challenges can be skipped");
         }
+        return challenge;
+    }
+
+    public CodeChallengeResponse generateNewChallenge(User user) {
+        return generateNewChallenge(user, null);
+    }
 
-        challenge.setStatus(ChallengeStatus.SKIPPED);
-        challenge.setCompletedAt(LocalDateTime.now());
+    public CodeChallengeResponse generateNewChallenge(User user, Integer overrideDifficulty) {
+        return generateFlights.execute(new FlightKey(user.getId(), overrideDifficulty),
+                () -> doGenerateNewChallenge(user, overrideDifficulty));
+    }
 
-        // No explicit save; JPA will flush changes at transaction commit
+    private CodeChallengeResponse doGenerateNewChallenge(User user, Integer overrideDifficulty) {
+        Long userId = user.getId();
+        // Marked in flight before the reservation commits, so a reconcile can never see the
+        // claimed slot without a row or an in-flight mark backing it
+        statsService.beginInFlight(userId);
+        try {
+            int difficulty = transactionTemplate.execute(status -> {
+                reserveSlot(user, true);
+                return (overrideDifficulty != null)
+                        ? clampDifficulty(overrideDifficulty)
+                        : determineDifficulty(statsService.load(userId));
+            });
 
-        // Create a new challenge with same user + updated difficulty
-        int nextDifficulty = determineDifficulty(user);
-        generateAndPersistChallenge(user, nextDifficulty);
+            // The slot is committed from here on: release it on any failure, including Errors
+            boolean created = false;
+            try {
+                ChallengeCatalogEntry generated = generate(userId, difficulty);
+                CodeChallenge saved = transactionTemplate.execute(status -> persistChallenge(user, difficulty, generated));
+                created = true;
+                return CodeChallengeMapper.toResponse(saved);
+            } finally {
+                if (!created) {
+                    releaseSlot(userId);
+                }
+            }
+        } finally {
+            statsService.endInFlight(userId);
+        }
     }
 
-    @Transactional
-    public CodeChallengeResponse generateNewChallenge(User user) {
-        validateChallengeLimit(user);
-        int difficulty = determineDifficulty(user);
-        CodeChallenge created = generateAndPersistChallenge(user, difficulty);
-        return CodeChallengeMapper.toResponse(created);
+    /**
+     * Async flow, step 1: reserve a slot by inserting a GENERATING placeholder row.
+     * The caller is expected to follow up with {@link #completePlaceholder(Long)}.
+     */
+    public CodeChallenge reservePlaceholder(User user, Integer overrideDifficulty) {
+        return transactionTemplate.execute(status -> {
+            reserveSlot(user, false);
+            int difficulty = (overrideDifficulty != null)
+                    ? clampDifficulty(overrideDifficulty)
+                    : determineDifficulty(statsService.load(user.getId()));
+            CodeChallenge placeholder = CodeChallenge.builder()
+                    .user(user)
+                    .title(PLACEHOLDER_TITLE)
+                    .description("")
+                    .solution(0)
+                    .difficulty(difficulty)
+                    .status(ChallengeStatus.GENERATING)
+                    .failedAttempts(0)
+                    .build();
+            statsService.recordCreated(user.getId(), difficulty);
+            return repository.save(placeholder);
+        });
     }
 
-    @Transactional
-    public CodeChallengeResponse generateNewChallenge(User user, Integer overrideDifficulty) {
-        validateChallengeLimit(user);
-        int difficulty = (overrideDifficulty != null) ? clampDifficulty(overrideDifficulty) : determineDifficulty(user);
-        CodeChallenge created = generateAndPersistChallenge(user, difficulty);
-        return CodeChallengeMapper.toResponse(created);
+    /**
+     * Async flow, step 2: generate outside any transaction and turn the placeholder into a
+     * PENDING challenge. On any failure the placeholder is removed so it no longer counts
+     * against the user's limit.
+     */
+    public CodeChallengeResponse completePlaceholder(Long challengeId) {
+        boolean completed = false;
+        try {
+            CodeChallenge placeholder = transactionTemplate.execute(status -> findPlaceholder(challengeId));
+            ChallengeCatalogEntry generated = generate(placeholder.getUser().getId(), placeholder.getDifficulty());
+
+            CodeChallenge challenge = transactionTemplate.execute(status -> {
+                CodeChallenge current = findPlaceholder(challengeId);
+                current.setTitle(generated.getTitle());
+                current.setDescription(generated.getDescription());
+                current.setSolution(generated.getSolution());
+                current.setCatalogEntryId(generated.getId());
+                current.setStatus(ChallengeStatus.PENDING);
+                return current;
+            });
+            completed = true;
+            return CodeChallengeMapper.toResponse(challenge);
+        } finally {
+            if (!completed) {
+                tryDiscardPlaceholder(challengeId);
+            }
+        }
+    }
+
+    /**
+     * Removes GENERATING placeholders created before the cutoff. Their job died with a previous
+     * instance or outlived its timeout, so nothing will ever complete them.
+     */
+    public int discardStalePlaceholders(LocalDateTime cutoff) {
+        int discarded = 0;
+        for (Long id : repository.findIdsByStatusCreatedBefore(ChallengeStatus.GENERATING, cutoff)) {
+            if (tryDiscardPlaceholder(id)) {
+                discarded++;
+            }
+        }
+        return discarded;
+    }
+
+    public void discardPlaceholder(Long challengeId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            CodeChallenge placeholder = findPlaceholder(challengeId);
+            repository.delete(placeholder);
+            statsService.recordDiscarded(placeholder.getUser().getId(), placeholder.getDifficulty());
+        });
     }
 
-    // Validate that user doesn't have too many incomplete challenges
-    private void validateChallengeLimit(User user) {
-        long incompleteCount = repository.countByUserAndStatus(user, ChallengeStatus.PENDING);
-        if (incompleteCount >= MAX_INCOMPLETE_CHALLENGES) {
+    // Never masks the caller's exception; the placeholder may already be gone or completed
+    public boolean tryDiscardPlaceholder(Long challengeId) {
+        try {
+            discardPlaceholder(challengeId);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Could not discard placeholder challenge {}: {}", challengeId, ex.getMessage());
+            return false;
+        }
+    }
+
+    private CodeChallenge findPlaceholder(Long challengeId) {
+        CodeChallenge challenge = repository.findById(challengeId)
+                .orElseThrow(() -> new NotFoundException("Challenge not found"));
+        if (challenge.getStatus() != ChallengeStatus.GENERATING) {
+            throw new IllegalStateException("Challenge is not being generated");
+        }
+        return challenge;
+    }
+
+    // Claim one of the user's incomplete (pending or generating) slots with a single conditional update
+    private void reserveSlot(User user, boolean inFlight) {
+        if (!statsService.tryReserve(user.getId(), MAX_INCOMPLETE_CHALLENGES, inFlight)) {
             throw new TooManyChallengesException(
                 String.format("You already have %d incomplete challenges. Complete or skip some before generating new ones.", 
                     MAX_INCOMPLETE_CHALLENGES)
@@ -101,19 +262,47 @@ public class CodeChallengeService {
         }
     }
 
-    // Consolidated generation/persist logic
-    private CodeChallenge generateAndPersistChallenge(User user, int difficulty) {
-        GeneratedChallenge generated = generator.generate(difficulty);
+    private void releaseSlot(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> statsService.release(userId));
+    }
+
+    /*
+     * Prefers a catalog entry the user hasn't seen, then the pre-generated pool, then an inline
+     * LLM call; new content is registered in the catalog for reuse. Must not run inside a transaction.
+     */
+    private ChallengeCatalogEntry generate(Long userId, int difficulty) {
+        Optional<ChallengeCatalogEntry> unseen = catalog.findUnseen(userId, difficulty);
+        if (unseen.isPresent()) {
+            return unseen.get();
+        }
+        // Fresh content can hash to an existing entry: one this user was already assigned, or one
+        // filed under another difficulty. Neither may be handed out, so generate again.
+        for (int attempt = 1; attempt <= MAX_GENERATION_ATTEMPTS; attempt++) {
+            GeneratedChallenge generated = challengePool.take(difficulty)
+                    .orElseGet(() -> generator.generate(difficulty));
+            ChallengeCatalogEntry entry = catalog.register(generated, difficulty);
+            if (entry.getDifficulty() == difficulty
+                    && !repository.existsByUserIdAndCatalogEntryId(userId, entry.getId())) {
+                return entry;
+            }
+            log.debug("Generated challenge matches catalog entry {} the user cannot be given", entry.getId());
+        }
+        throw new LlmCallException("Could not generate a challenge the user has not seen yet", null);
+    }
+
+    private CodeChallenge persistChallenge(User user, int difficulty, ChallengeCatalogEntry generated) {
         CodeChallenge challenge = CodeChallenge.builder()
                 .user(user)
-                .title(generated.title())
-                .description(generated.description())
-                .solution(generated.solution())
+                .title(generated.getTitle())
+                .description(generated.getDescription())
+                .solution(generated.getSolution())
+                .catalogEntryId(generated.getId())
                 .difficulty(difficulty)
                 .status(ChallengeStatus.PENDING)
                 .failedAttempts(0)
                 .completedAt(null)
                 .build();
+        statsService.recordCreated(user.getId(), difficulty);
         return repository.save(challenge);
     }
 
@@ -123,9 +312,8 @@ public class CodeChallengeService {
         return difficulty;
     }
 
-    private int determineDifficulty(User user) {
+    private int determineDifficulty(UserChallengeStats stats) {
         // Basic implementation: make it harder as user completes more
-        long completed = repository.countByUserAndStatus(user, ChallengeStatus.COMPLETED);
-        return (int) Math.min(5, 1 + completed / 3); // increase difficulty every 3 correct
+        return (int) Math.min(5, 1 + stats.getCompleted() / 3); // increase difficulty every 3 correct
     }
 }
\ No newline at end of file
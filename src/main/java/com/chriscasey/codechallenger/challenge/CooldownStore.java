@@ -0,0 +1,30 @@
+package com.chriscasey.codechallenger.challenge;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Tracks the last submission attempt per (user, challenge) for the submission cooldown.
+ */
+public interface CooldownStore {
+
+    /**
+     * Last recorded attempt, or empty if this store holds no entry for the pair
+     * (callers then fall back to the persisted {@code last_attempt_time}).
+     */
+    Optional<LocalDateTime> lastAttempt(Long userId, Long challengeId);
+
+    /** Minimum time between two attempts on the same challenge. */
+    Duration cooldown();
+
+    /**
+     * Atomically records an attempt at {@code now} unless the previous attempt is still
+     * within {@link #cooldown()}.
+     *
+     * @param persisted the persisted last attempt, used when the store has no entry yet
+     * @return the blocking previous attempt, or empty if the attempt was recorded
+     */
+    Optional<LocalDateTime> tryRecordAttempt(Long userId, Long challengeId, LocalDateTime persisted,
+                                             LocalDateTime now);
+}
@@ -0,0 +1,47 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import com.chriscasey.codechallenger.exception.LlmCallException;
+import com.chriscasey.codechallenger.exception.LlmParseException;
+import com.chriscasey.codechallenger.exception.LlmUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+// Delegates to the primary source and switches to the fallback when the LLM is down or misbehaving
+@Slf4j
+class FallbackChallengeSource implements ChallengeSource {
+
+    private final ChallengeSource primary;
+    private final ChallengeSource fallback;
+
+    FallbackChallengeSource(ChallengeSource primary, ChallengeSource fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public String name() {
+        return primary.name() + "+" + fallback.name();
+    }
+
+    @Override
+    public GeneratedChallenge generate(int difficulty) {
+        try {
+            return primary.generate(difficulty);
+        } catch (LlmUnavailableException | LlmCallException | LlmParseException ex) {
+            log.warn("Challenge source '{}' failed, using '{}': {}", primary.name(), fallback.name(), ex.getMessage());
+            return fallback.generate(difficulty);
+        }
+    }
+
+    @Override
+    public List<GeneratedChallenge> generateBatch(int difficulty, int count) {
+        try {
+            return primary.generateBatch(difficulty, count);
+        } catch (LlmUnavailableException | LlmCallException | LlmParseException ex) {
+            log.warn("Challenge source '{}' failed, using '{}': {}", primary.name(), fallback.name(), ex.getMessage());
+            return fallback.generateBatch(difficulty, count);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.chriscasey.codechallenger.challenge;
+
+public enum GenerationJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,95 @@
+package com.chriscasey.codechallenger.challenge;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cooldown store without a global lock: each check-and-record is one
+ * {@link ConcurrentHashMap#compute}, which only locks the key's bin for the duration of the
+ * update. Accepted attempts are written behind to {@code code_challenge.last_attempt_time}
+ * on a fixed schedule (and on shutdown). Owns the {@code app.submission-cooldown-minutes}
+ * setting for the whole submission flow.
+ */
+@Slf4j
+@Component
+public class InMemoryCooldownStore implements CooldownStore {
+
+    private final CodeChallengeRepository repository;
+    private final Duration cooldown;
+
+    private final Map<CooldownKey, LocalDateTime> attempts = new ConcurrentHashMap<>();
+    // challengeId -> latest attempt not yet written to the database
+    private final Map<Long, LocalDateTime> pendingWrites = new ConcurrentHashMap<>();
+
+    public InMemoryCooldownStore(
+            CodeChallengeRepository repository,
+            @Value("${app.submission-cooldown-minutes:5}") int cooldownMinutes
+    ) {
+        this.repository = repository;
+        this.cooldown = Duration.ofMinutes(cooldownMinutes);
+    }
+
+    @Override
+    public Duration cooldown() {
+        return cooldown;
+    }
+
+    @Override
+    public Optional<LocalDateTime> lastAttempt(Long userId, Long challengeId) {
+        return Optional.ofNullable(attempts.get(new CooldownKey(userId, challengeId)));
+    }
+
+    @Override
+    public Optional<LocalDateTime> tryRecordAttempt(Long userId, Long challengeId, LocalDateTime persisted,
+                                                    LocalDateTime now) {
+        LocalDateTime[] blockedBy = new LocalDateTime[1];
+        attempts.compute(new CooldownKey(userId, challengeId), (key, current) -> {
+            LocalDateTime last = (current != null) ? current : persisted;
+            if (last != null && now.isBefore(last.plus(cooldown))) {
+                blockedBy[0] = last;
+                return current;
+            }
+            return now;
+        });
+
+        if (blockedBy[0] != null) {
+            return Optional.of(blockedBy[0]);
+        }
+        pendingWrites.merge(challengeId, now, (a, b) -> a.isAfter(b) ? a : b);
+        return Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cooldown-store.flush-interval-ms:5000}")
+    public void flush() {
+        for (Map.Entry<Long, LocalDateTime> entry : pendingWrites.entrySet()) {
+            try {
+                repository.updateLastAttemptTime(entry.getKey(), entry.getValue());
+                // Only clear if no newer attempt arrived while writing
+                pendingWrites.remove(entry.getKey(), entry.getValue());
+            } catch (RuntimeException ex) {
+                log.warn("Failed to write back last attempt for challenge {}: {}", entry.getKey(), ex.getMessage());
+            }
+        }
+
+        // Expired entries no longer block anything; the persisted column covers cold lookups
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(cooldown);
+        attempts.entrySet().removeIf(e -> e.getValue().isBefore(expiredBefore)
+                && !pendingWrites.containsKey(e.getKey().challengeId()));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record CooldownKey(Long userId, Long challengeId) {}
+}
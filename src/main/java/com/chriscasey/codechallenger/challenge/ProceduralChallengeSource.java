@@ -0,0 +1,134 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Local generator for array, loop and math puzzles whose answers are computed, not predicted.
+ * Output is deterministic: the n-th call with a given seed always yields the same puzzle,
+ * so load tests are repeatable.
+ */
+@Component
+public class ProceduralChallengeSource implements ChallengeSource {
+
+    private static final int TEMPLATE_COUNT = 5;
+    // Spreads consecutive sequence numbers across the seed space
+    private static final long SEQUENCE_STRIDE = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ProceduralChallengeSource(@Value("${app.challenge-source.procedural.seed:42}") long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String name() {
+        return "procedural";
+    }
+
+    @Override
+    public GeneratedChallenge generate(int difficulty) {
+        int d = Math.max(1, Math.min(5, difficulty));
+        SplittableRandom random = new SplittableRandom(seed + sequence.getAndIncrement() * SEQUENCE_STRIDE);
+        return switch (random.nextInt(TEMPLATE_COUNT)) {
+            case 0 -> sumAboveThreshold(random, d);
+            case 1 -> countDivisible(random, d);
+            case 2 -> maxMinusMin(random, d);
+            case 3 -> sumOfMultiples(random, d);
+            default -> collatzSteps(random, d);
+        };
+    }
+
+    private GeneratedChallenge sumAboveThreshold(SplittableRandom random, int d) {
+        int[] values = randomArray(random, d);
+        int threshold = random.nextInt(1, 10 * d);
+        int sum = 0;
+        for (int v : values) {
+            if (v > threshold) {
+                sum += v;
+            }
+        }
+        return new GeneratedChallenge(
+                "Sum Above Threshold",
+                "Given the array %s, compute the sum of all elements strictly greater than %d."
+                        .formatted(format(values), threshold),
+                sum, d);
+    }
+
+    private GeneratedChallenge countDivisible(SplittableRandom random, int d) {
+        int[] values = randomArray(random, d);
+        int divisor = random.nextInt(2, 3 + d);
+        int count = 0;
+        for (int v : values) {
+            if (v % divisor == 0) {
+                count++;
+            }
+        }
+        return new GeneratedChallenge(
+                "Count Divisible Elements",
+                "Given the array %s, how many elements are divisible by %d?"
+                        .formatted(format(values), divisor),
+                count, d);
+    }
+
+    private GeneratedChallenge maxMinusMin(SplittableRandom random, int d) {
+        int[] values = randomArray(random, d);
+        int max = Arrays.stream(values).max().orElse(0);
+        int min = Arrays.stream(values).min().orElse(0);
+        return new GeneratedChallenge(
+                "Spread of an Array",
+                "Given the array %s, return the difference between its largest and smallest element."
+                        .formatted(format(values)),
+                max - min, d);
+    }
+
+    private GeneratedChallenge sumOfMultiples(SplittableRandom random, int d) {
+        int a = random.nextInt(2, 4 + d);
+        int b = random.nextInt(2, 4 + d);
+        int limit = random.nextInt(10 * d, 50 * d + 1);
+        int sum = 0;
+        for (int i = 1; i < limit; i++) {
+            if (i % a == 0 || i % b == 0) {
+                sum += i;
+            }
+        }
+        return new GeneratedChallenge(
+                "Sum of Multiples",
+                "Loop over every integer from 1 up to (but not including) %d and add up those divisible by %d or %d. What is the total?"
+                        .formatted(limit, a, b),
+                sum, d);
+    }
+
+    private GeneratedChallenge collatzSteps(SplittableRandom random, int d) {
+        int start = random.nextInt(2, 20 * d + 1);
+        int steps = 0;
+        for (long x = start; x != 1; steps++) {
+            x = (x % 2 == 0) ? x / 2 : 3 * x + 1;
+        }
+        return new GeneratedChallenge(
+                "Collatz Steps",
+                "Start with x = %d. While x is not 1: if x is even set x = x / 2, otherwise set x = 3x + 1. How many steps does it take to reach 1?"
+                        .formatted(start),
+                steps, d);
+    }
+
+    // Longer arrays with larger values as difficulty grows
+    private static int[] randomArray(SplittableRandom random, int d) {
+        int[] values = new int[4 + 3 * d];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(1, 10 * d + 10);
+        }
+        return values;
+    }
+
+    private static String format(int[] values) {
+        return Arrays.stream(values).mapToObj(Integer::toString).collect(Collectors.joining(", ", "[", "]"));
+    }
+}
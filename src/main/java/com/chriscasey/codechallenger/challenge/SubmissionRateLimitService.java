@@ -1,47 +1,54 @@
 package com.chriscasey.codechallenger.challenge;
 
+import com.chriscasey.codechallenger.exception.SubmissionRateLimitException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
 public class SubmissionRateLimitService {
-    
-    private final CodeChallengeRepository codeChallengeRepository;
-    
-    @Value("${app.submission-cooldown-minutes:5}")
-    private int cooldownMinutes;
-    
-    public boolean canSubmit(CodeChallenge codeChallenge) {
-        if (codeChallenge.getLastAttemptTime() == null) {
-            return true;
-        }
-        
-        LocalDateTime nextAllowedTime = codeChallenge.getLastAttemptTime()
-            .plusMinutes(cooldownMinutes);
-        
-        return LocalDateTime.now().isAfter(nextAllowedTime);
+
+    private final CooldownStore cooldownStore;
+
+    /**
+     * Memory-only check, done before the challenge is loaded so rejected submissions
+     * never touch the database.
+     */
+    public void checkCooldown(Long userId, Long challengeId) {
+        cooldownStore.lastAttempt(userId, challengeId)
+                .filter(last -> LocalDateTime.now().isBefore(nextAllowedTime(last)))
+                .ifPresent(last -> {
+                    throw new SubmissionRateLimitException(getRemainingCooldownMinutes(last));
+                });
     }
-    
-    public long getRemainingCooldownMinutes(CodeChallenge codeChallenge) {
-        if (codeChallenge.getLastAttemptTime() == null) {
-            return 0;
-        }
-        
-        LocalDateTime nextAllowedTime = codeChallenge.getLastAttemptTime()
-            .plusMinutes(cooldownMinutes);
-        
+
+    /**
+     * Atomically records an attempt, falling back to the persisted last attempt when the
+     * store has no entry yet (e.g. after a restart).
+     */
+    public void recordAttempt(Long userId, CodeChallenge codeChallenge) {
+        cooldownStore.tryRecordAttempt(
+                        userId,
+                        codeChallenge.getId(),
+                        codeChallenge.getLastAttemptTime(),
+                        LocalDateTime.now())
+                .ifPresent(last -> {
+                    throw new SubmissionRateLimitException(getRemainingCooldownMinutes(last));
+                });
+    }
+
+    public long getRemainingCooldownMinutes(LocalDateTime lastAttemptTime) {
+        LocalDateTime nextAllowedTime = nextAllowedTime(lastAttemptTime);
         if (LocalDateTime.now().isAfter(nextAllowedTime)) {
             return 0;
         }
-        
-        return java.time.Duration.between(LocalDateTime.now(), nextAllowedTime).toMinutes();
+        return Duration.between(LocalDateTime.now(), nextAllowedTime).toMinutes();
     }
-    
-    public void recordAttempt(CodeChallenge codeChallenge) {
-        codeChallenge.setLastAttemptTime(LocalDateTime.now());
-        codeChallengeRepository.save(codeChallenge);
+
+    private LocalDateTime nextAllowedTime(LocalDateTime lastAttemptTime) {
+        return lastAttemptTime.plus(cooldownStore.cooldown());
     }
 }
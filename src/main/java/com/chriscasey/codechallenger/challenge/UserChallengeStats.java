@@ -0,0 +1,35 @@
+package com.chriscasey.codechallenger.challenge;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Denormalized per-user challenge counters, so limit and difficulty checks are a single
+ * primary-key read instead of count scans over the user's history.
+ * {@code pending} covers both PENDING and GENERATING challenges.
+ */
+@Entity
+@Table(name = "user_challenge_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserChallengeStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long pending;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(nullable = false)
+    private long skipped;
+
+    @Column(nullable = false)
+    private long failedAttempts;
+}
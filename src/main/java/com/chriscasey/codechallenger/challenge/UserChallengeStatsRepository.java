@@ -0,0 +1,65 @@
+package com.chriscasey.codechallenger.challenge;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface UserChallengeStatsRepository extends JpaRepository<UserChallengeStats, Long> {
+
+    // Builds the row from the user's existing challenges (first access only); a no-op if it exists
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into user_challenge_stats (user_id, pending, completed, skipped, failed_attempts)
+            select :userId,
+                   count(case when c.status in ('PENDING', 'GENERATING') then 1 end),
+                   count(case when c.status = 'COMPLETED' then 1 end),
+                   count(case when c.status = 'SKIPPED' then 1 end),
+                   coalesce(sum(c.failed_attempts), 0)
+            from code_challenge c
+            where c.user_id = :userId
+            on conflict do nothing
+            """, nativeQuery = true)
+    int initializeFromChallenges(@Param("userId") Long userId);
+
+    // Recomputes pending from the user's challenges plus reservations still generating on this instance
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update user_challenge_stats
+            set pending = (select count(*) from code_challenge c
+                           where c.user_id = :userId and c.status in ('PENDING', 'GENERATING')) + :inFlight
+            where user_id = :userId
+            """, nativeQuery = true)
+    int reconcilePending(@Param("userId") Long userId, @Param("inFlight") long inFlight);
+
+    // Users whose pending counter disagrees with code_challenge (leaked or in-flight reservations)
+    @Query(value = """
+            select s.user_id from user_challenge_stats s
+            where s.pending <> (select count(*) from code_challenge c
+                                where c.user_id = s.user_id and c.status in ('PENDING', 'GENERATING'))
+            """, nativeQuery = true)
+    List<Long> findUsersWithPendingDrift();
+
+    // Claims a pending slot only while below the limit; 0 rows = limit reached (or no row yet)
+    @Modifying
+    @Transactional
+    @Query("update UserChallengeStats s set s.pending = s.pending + 1 where s.userId = :userId and s.pending < :limit")
+    int reservePendingSlot(@Param("userId") Long userId, @Param("limit") long limit);
+
+    // Atomic in-place increments; a no-op (0 rows) if the row has not been initialized yet
+    @Modifying
+    @Transactional
+    @Query("update UserChallengeStats s set s.pending = s.pending + :pending, "
+            + "s.completed = s.completed + :completed, s.skipped = s.skipped + :skipped, "
+            + "s.failedAttempts = s.failedAttempts + :failedAttempts where s.userId = :userId")
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("pending") long pending,
+                   @Param("completed") long completed,
+                   @Param("skipped") long skipped,
+                   @Param("failedAttempts") long failedAttempts);
+}
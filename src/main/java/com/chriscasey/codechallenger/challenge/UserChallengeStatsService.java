@@ -0,0 +1,137 @@
+package com.chriscasey.codechallenger.challenge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maintains {@link UserChallengeStats} alongside every challenge status transition.
+ * The record* methods must run in the same transaction as the transition they describe.
+ * <p>
+ * A missing row is rebuilt from {@code code_challenge} on first {@link #load}; deltas
+ * applied before that are skipped, since the rebuild already reflects committed state.
+ * Each transition is also published as a {@link ChallengeEvent}.
+ * <p>
+ * Pending slots are claimed up front with {@link #tryReserve}, which is what enforces the
+ * per-user limit under concurrency; creating a challenge then fills the claimed slot.
+ * A slot whose generation never finishes (crash, redeploy, failed release) is reclaimed by
+ * {@link #reconcile}, which recomputes pending from {@code code_challenge} at startup, on a
+ * schedule and whenever a reservation hits the limit. Reservations still generating on this
+ * instance are tracked in memory so reconciling does not hand their slots out twice; ones on
+ * other instances can briefly be undercounted.
+ */
+@Slf4j
+@Service
+public class UserChallengeStatsService {
+
+    private final UserChallengeStatsRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    // userId -> reservations committed but not yet persisted or released on this instance
+    private final ConcurrentMap<Long, Integer> inFlightByUser = new ConcurrentHashMap<>();
+
+    public UserChallengeStatsService(UserChallengeStatsRepository repository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public UserChallengeStats load(Long userId) {
+        return repository.findById(userId).orElseGet(() -> initialize(userId));
+    }
+
+    /**
+     * Atomically claim a pending slot if the user has fewer than {@code limit}.
+     * Callers must {@link #release} the slot if no challenge ends up being created.
+     * {@code callerInFlight} says whether the caller already called {@link #beginInFlight} for
+     * this reservation, so a rebuild here does not count the slot it is about to claim twice.
+     */
+    public boolean tryReserve(Long userId, int limit, boolean callerInFlight) {
+        if (repository.reservePendingSlot(userId, limit) == 1) {
+            return true;
+        }
+        // No row yet, at the limit, or slots leaked: rebuild pending and try once more
+        load(userId);
+        repository.reconcilePending(userId, inFlight(userId) - (callerInFlight ? 1 : 0));
+        return repository.reservePendingSlot(userId, limit) == 1;
+    }
+
+    public void release(Long userId) {
+        repository.applyDelta(userId, -1, 0, 0, 0);
+    }
+
+    // Bracket a reservation from before it commits until its challenge row exists (i.e. generating)
+    public void beginInFlight(Long userId) {
+        inFlightByUser.merge(userId, 1, Integer::sum);
+    }
+
+    public void endInFlight(Long userId) {
+        inFlightByUser.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.challenge-stats.reconcile-initial-delay-ms:0}",
+            fixedDelayString = "${app.challenge-stats.reconcile-interval-ms:600000}"
+    )
+    public void reconcile() {
+        List<Long> drifted = repository.findUsersWithPendingDrift();
+        for (Long userId : drifted) {
+            transactionTemplate.executeWithoutResult(status -> repository.reconcilePending(userId, inFlight(userId)));
+        }
+        if (!drifted.isEmpty()) {
+            log.info("Reconciled pending challenge counts for {} users", drifted.size());
+        }
+    }
+
+    private int inFlight(Long userId) {
+        return inFlightByUser.getOrDefault(userId, 0);
+    }
+
+    // The pending slot was already claimed by tryReserve (or kept by a skip)
+    public void recordCreated(Long userId, int difficulty) {
+        publish(ChallengeEvent.Type.CREATED, userId, difficulty);
+    }
+
+    public void recordDiscarded(Long userId, int difficulty) {
+        repository.applyDelta(userId, -1, 0, 0, 0);
+        publish(ChallengeEvent.Type.DISCARDED, userId, difficulty);
+    }
+
+    public void recordCompleted(Long userId, int difficulty) {
+        repository.applyDelta(userId, -1, 1, 0, 0);
+        publish(ChallengeEvent.Type.COMPLETED, userId, difficulty);
+    }
+
+    // The skipped challenge's pending slot is handed to its replacement, so pending is unchanged
+    public void recordSkipped(Long userId, int difficulty) {
+        repository.applyDelta(userId, 0, 0, 1, 0);
+        publish(ChallengeEvent.Type.SKIPPED, userId, difficulty);
+    }
+
+    public void recordFailedAttempt(Long userId, int difficulty) {
+        repository.applyDelta(userId, 0, 0, 0, 1);
+        publish(ChallengeEvent.Type.FAILED_ATTEMPT, userId, difficulty);
+    }
+
+    private void publish(ChallengeEvent.Type type, Long userId, int difficulty) {
+        eventPublisher.publishEvent(new ChallengeEvent(type, userId, difficulty));
+    }
+
+    // Runs in the caller's transaction: a second connection could starve a small pool. The insert
+    // skips a row created concurrently, so the lookup then sees whichever initializer won.
+    private UserChallengeStats initialize(Long userId) {
+        repository.initializeFromChallenges(userId);
+        return repository.findById(userId)
+                .orElseThrow(() -> new IllegalStateException("Challenge stats missing for user " + userId));
+    }
+}
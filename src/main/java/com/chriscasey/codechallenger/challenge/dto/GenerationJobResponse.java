@@ -0,0 +1,11 @@
+package com.chriscasey.codechallenger.challenge.dto;
+
+import com.chriscasey.codechallenger.challenge.GenerationJobStatus;
+
+public record GenerationJobResponse(
+        String jobId,
+        GenerationJobStatus status,
+        Long challengeId,
+        CodeChallengeResponse challenge,
+        String error
+) {}
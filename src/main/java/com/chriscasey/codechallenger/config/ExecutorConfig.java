@@ -0,0 +1,87 @@
+package com.chriscasey.codechallenger.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    @Value("${app.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    // Background LLM calls that top up the pre-generated challenge pool
+    @Bean(name = "challengePoolExecutor")
+    public ThreadPoolTaskExecutor challengePoolExecutor(
+            @Value("${app.challenge-pool.refill-threads:2}") int refillThreads
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(refillThreads);
+        executor.setMaxPoolSize(refillThreads);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("challenge-pool-");
+        applyThreadMode(executor, "challenge-pool-vt-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs async (202 Accepted) challenge generation jobs off the servlet threads
+    @Bean(name = "challengeGenerationExecutor")
+    public ThreadPoolTaskExecutor challengeGenerationExecutor(
+            @Value("${app.challenge-generation.threads:8}") int threads,
+            @Value("${app.challenge-generation.queue-capacity:100}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("challenge-gen-");
+        applyThreadMode(executor, "challenge-gen-vt-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Hedged OpenAI requests; no queue, so a saturated pool just skips hedging
+    @Bean(name = "llmHedgeExecutor")
+    public ThreadPoolTaskExecutor llmHedgeExecutor(
+            @Value("${openai.resilience.hedge.threads:16}") int threads
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("llm-hedge-");
+        applyThreadMode(executor, "llm-hedge-vt-");
+        executor.initialize();
+        return executor;
+    }
+
+    // BCrypt hashing and verification: CPU-bound, so sized to cores and kept on platform threads.
+    // A full queue rejects, which OffloadingPasswordEncoder turns into a 503
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${app.password-hashing.threads:0}") int threads,
+            @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity
+    ) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Keeps the pool's size and queue bounds as admission control, but backs it with
+    // virtual threads so tasks parked on LLM I/O do not pin platform threads
+    private void applyThreadMode(ThreadPoolTaskExecutor executor, String virtualPrefix) {
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name(virtualPrefix, 0).factory());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.chriscasey.codechallenger.exception;
+
+// Thrown when the async generation queue is full; the request can be retried shortly
+public class ChallengeGenerationBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ChallengeGenerationBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
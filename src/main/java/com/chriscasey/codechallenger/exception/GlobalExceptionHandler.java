@@ -34,6 +34,14 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.TOO_MANY_REQUESTS, "Rate Limited", ex.getMessage(), req, null);
     }
 
+    // Token-bucket throttling from RateLimitFilter
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceeded(RateLimitExceededException ex, HttpServletRequest req) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return build(HttpStatus.TOO_MANY_REQUESTS, "Rate Limited", ex.getMessage(), req, null, headers);
+    }
+
     // Business-rule conflict (e.g., submitting a non-pending challenge)
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<ErrorResponse> handleIllegalState(IllegalStateException ex, HttpServletRequest req) {
@@ -47,6 +55,35 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.BAD_GATEWAY, "Bad Gateway", ex.getMessage(), req, null);
     }
 
+    // Circuit breaker open: fail fast and tell the client when to come back
+    @ExceptionHandler(LlmUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleLlmUnavailable(LlmUnavailableException ex, HttpServletRequest req) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return build(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), req, null, headers);
+    }
+
+    // Password hashing queue full: shed the login/register instead of queueing without bound
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingBusy(PasswordHashingBusyException ex, HttpServletRequest req) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return build(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), req, null, headers);
+    }
+
+    // Async generation queue full: no job was created and the reserved slot was given back
+    @ExceptionHandler(ChallengeGenerationBusyException.class)
+    public ResponseEntity<ErrorResponse> handleChallengeGenerationBusy(ChallengeGenerationBusyException ex, HttpServletRequest req) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return build(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), req, null, headers);
+    }
+
+    @ExceptionHandler(LlmCallException.class)
+    public ResponseEntity<ErrorResponse> handleLlmCall(LlmCallException ex, HttpServletRequest req) {
+        return build(HttpStatus.BAD_GATEWAY, "Bad Gateway", ex.getMessage(), req, null);
+    }
+
     // Optimistic locking -> 409
     @ExceptionHandler({
             ObjectOptimisticLockingFailureException.class,
@@ -91,8 +128,13 @@ public class GlobalExceptionHandler {
 
     private ResponseEntity<ErrorResponse> build(HttpStatus status, String error, String message, HttpServletRequest req,
                                                 List<ErrorResponse.FieldErrorItem> details) {
+        return build(status, error, message, req, details, new HttpHeaders());
+    }
+
+    private ResponseEntity<ErrorResponse> build(HttpStatus status, String error, String message, HttpServletRequest req,
+                                                List<ErrorResponse.FieldErrorItem> details, HttpHeaders headers) {
         ErrorResponse body = ErrorResponse.of(status.value(), error, message, pathOf(req), details);
-        return new ResponseEntity<>(body, new HttpHeaders(), status);
+        return new ResponseEntity<>(body, headers, status);
     }
 
     private String pathOf(HttpServletRequest req) {
@@ -0,0 +1,8 @@
+package com.chriscasey.codechallenger.exception;
+
+// The LLM call failed upstream (after any retries the budget allowed)
+public class LlmCallException extends RuntimeException {
+    public LlmCallException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
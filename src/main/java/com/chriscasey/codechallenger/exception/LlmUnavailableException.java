@@ -0,0 +1,15 @@
+package com.chriscasey.codechallenger.exception;
+
+// Thrown without calling the LLM while the circuit breaker is open
+public class LlmUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LlmUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
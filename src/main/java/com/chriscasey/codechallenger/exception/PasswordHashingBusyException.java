@@ -0,0 +1,15 @@
+package com.chriscasey.codechallenger.exception;
+
+// Thrown when the password hashing queue is full; the login/register can be retried shortly
+public class PasswordHashingBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
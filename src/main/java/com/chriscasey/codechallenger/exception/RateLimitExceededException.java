@@ -0,0 +1,20 @@
+package com.chriscasey.codechallenger.exception;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final String route;
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String route, long retryAfterSeconds) {
+        super(String.format("Too many requests. Retry in %d seconds.", retryAfterSeconds));
+        this.route = route;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.chriscasey.codechallenger.jwt;
+
+import com.chriscasey.codechallenger.auth.Role;
+
+import java.time.Instant;
+
+/**
+ * Claims of an access token whose signature and expiry have already been verified.
+ * {@code userId}, {@code role} and {@code tokenId} are null for tokens issued before they
+ * were added as claims.
+ */
+public record AccessTokenClaims(
+        String email,
+        Long userId,
+        Role role,
+        String tokenId,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+    public boolean hasPrincipalClaims() {
+        return userId != null && role != null;
+    }
+}
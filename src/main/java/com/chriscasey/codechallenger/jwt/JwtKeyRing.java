@@ -0,0 +1,138 @@
+package com.chriscasey.codechallenger.jwt;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable set of ES256 (P-256) keys: the one current signing key plus every public key that
+ * is still accepted for verification, by {@code kid}. Rotating means adding the new key pair
+ * as the signing key and keeping the old public key in the verification list until the
+ * tokens it signed have expired.
+ */
+final class JwtKeyRing {
+
+    private final String signingKid;
+    private final PrivateKey signingKey;
+    private final Map<String, ECPublicKey> verificationKeys;
+    private final List<Map<String, Object>> jwks;
+
+    private JwtKeyRing(String signingKid, PrivateKey signingKey, Map<String, ECPublicKey> verificationKeys) {
+        this.signingKid = signingKid;
+        this.signingKey = signingKey;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+        this.jwks = verificationKeys.entrySet().stream()
+                .map(e -> toJwk(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    /**
+     * @param privateKey         Base64 PKCS#8 private key; a throwaway key pair is generated when blank
+     * @param publicKey          Base64 X.509 public key matching {@code privateKey}
+     * @param verificationKeys   further accepted keys as {@code kid:base64X509}, comma-separated
+     */
+    static JwtKeyRing load(String kid, String privateKey, String publicKey, String verificationKeys) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("EC");
+            Map<String, ECPublicKey> verifying = new LinkedHashMap<>();
+            String signingKid;
+            PrivateKey signing;
+            if (isBlank(privateKey)) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                KeyPair pair = generator.generateKeyPair();
+                signingKid = "ephemeral-" + UUID.randomUUID();
+                signing = pair.getPrivate();
+                verifying.put(signingKid, (ECPublicKey) pair.getPublic());
+            } else {
+                if (isBlank(publicKey)) {
+                    throw new IllegalStateException("security.jwt.signing.public-key is required with a private key");
+                }
+                signingKid = isBlank(kid) ? "default" : kid.trim();
+                signing = factory.generatePrivate(new PKCS8EncodedKeySpec(decode(privateKey)));
+                verifying.put(signingKid, publicKey(factory, publicKey));
+            }
+            if (!isBlank(verificationKeys)) {
+                for (String entry : verificationKeys.split(",")) {
+                    int colon = entry.indexOf(':');
+                    if (colon <= 0) {
+                        throw new IllegalArgumentException("Expected kid:base64 in security.jwt.verification-keys");
+                    }
+                    verifying.putIfAbsent(entry.substring(0, colon).trim(), publicKey(factory, entry.substring(colon + 1)));
+                }
+            }
+            return new JwtKeyRing(signingKid, signing, verifying);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Invalid JWT signing configuration", ex);
+        }
+    }
+
+    boolean isEphemeral() {
+        return signingKid.startsWith("ephemeral-");
+    }
+
+    String signingKid() {
+        return signingKid;
+    }
+
+    PrivateKey signingKey() {
+        return signingKey;
+    }
+
+    // Null for unknown (or retired) key ids
+    PublicKey verificationKey(String kid) {
+        return verificationKeys.get(kid);
+    }
+
+    // Public keys in JWK form (RFC 7517/7518), precomputed for the JWKS endpoint
+    List<Map<String, Object>> jwks() {
+        return jwks;
+    }
+
+    private static Map<String, Object> toJwk(String kid, ECPublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("kid", kid);
+        jwk.put("x", coordinate(key.getW().getAffineX()));
+        jwk.put("y", coordinate(key.getW().getAffineY()));
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    // Fixed 32-byte big-endian, as JWK requires for P-256
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int copy = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - copy, fixed, 32 - copy, copy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static ECPublicKey publicKey(KeyFactory factory, String base64) throws GeneralSecurityException {
+        return (ECPublicKey) factory.generatePublic(new X509EncodedKeySpec(decode(base64)));
+    }
+
+    private static byte[] decode(String base64) {
+        return Base64.getMimeDecoder().decode(base64.trim());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
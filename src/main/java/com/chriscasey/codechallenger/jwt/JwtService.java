@@ -1,91 +1,153 @@
 package com.chriscasey.codechallenger.jwt;
 
+import com.chriscasey.codechallenger.auth.Role;
 import com.chriscasey.codechallenger.auth.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
-
+import java.util.UUID;
+
+/**
+ * Issues ES256 access tokens with a {@code kid} header and verifies them against the key ring.
+ * Tokens without a {@code kid} were signed with the old shared HS256 secret and are still
+ * accepted while {@code security.jwt.secret-key} is set.
+ */
+@Slf4j
 @Service
 public class JwtService {
 
-    @Value("${security.jwt.secret-key}")
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+
+    // Legacy HS256 secret, only used to verify tokens issued before the switch to ES256
+    @Value("${security.jwt.secret-key:}")
     private String secretKey;
 
+    @Value("${security.jwt.signing.kid:}")
+    private String signingKid;
+
+    @Value("${security.jwt.signing.private-key:}")
+    private String signingPrivateKey;
+
+    @Value("${security.jwt.signing.public-key:}")
+    private String signingPublicKey;
+
+    // Local development and tests only: sign with a key pair generated at startup
+    @Value("${security.jwt.signing.allow-ephemeral:false}")
+    private boolean allowEphemeral;
+
+    @Value("${security.jwt.verification-keys:}")
+    private String verificationKeys;
+
     @Value("${security.jwt.access-token.expiration}")
     private long accessTokenExpiration;
 
-    @Value("${security.jwt.refresh-token.expiration}")
-    private long refreshTokenExpiration;
+    private JwtKeyRing keyRing;
+    private Key legacyKey;
 
-    private Key key;
+    // Immutable and thread-safe; built once instead of per parse
+    private JwtParser parser;
 
     @PostConstruct
     public void init() {
-        // Always derive the signing key consistently from the Base64-encoded secret
-        this.key = getSignInKey();
+        if ((signingPrivateKey == null || signingPrivateKey.isBlank()) && !allowEphemeral) {
+            throw new IllegalStateException("security.jwt.signing.private-key is not set; "
+                    + "set security.jwt.signing.allow-ephemeral=true to sign with a throwaway key instead");
+        }
+        this.keyRing = JwtKeyRing.load(signingKid, signingPrivateKey, signingPublicKey, verificationKeys);
+        if (keyRing.isEphemeral()) {
+            log.warn("No security.jwt.signing.private-key configured; signing with a throwaway key. "
+                    + "Tokens will not survive a restart or verify on other instances.");
+        }
+        this.legacyKey = (secretKey == null || secretKey.isBlank()) ? null : getLegacyKey();
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyRingResolver())
+                .build();
     }
 
-    public String generateToken(Map<String, Object> extraClaims, User user) {
-        return buildToken(extraClaims, user, accessTokenExpiration);
+    // Public verification keys in JWK form, for /.well-known/jwks.json
+    public List<Map<String, Object>> publicJwks() {
+        return keyRing.jwks();
     }
 
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public boolean isTokenValid(String token, User user) {
-        final String email = extractEmail(token);
-        return (email.equals(user.getEmail()) && !isTokenExpired(token));
-    }
-
-    public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Access tokens carry the user id and role so requests can be authenticated without a DB lookup
+    public String generateToken(Map<String, Object> extraClaims, User user) {
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        if (user.getId() != null) {
+            claims.put(USER_ID_CLAIM, user.getId());
+        }
+        if (user.getRole() != null) {
+            claims.put(ROLE_CLAIM, user.getRole().name());
+        }
+        return buildToken(claims, user, accessTokenExpiration);
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        final Claims claims = extractAllClaims(token);
-        return resolver.apply(claims);
+    /**
+     * Verifies the signature and expiry and parses the claims in a single pass.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     * @throws IllegalArgumentException if the role claim is not a known {@link Role}
+     */
+    public AccessTokenClaims parseToken(String token) {
+        Claims claims = extractAllClaims(token);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        return new AccessTokenClaims(
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                role != null ? Role.valueOf(role) : null,
+                claims.getId(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant()
+        );
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Key getSignInKey() {
+    private Key getLegacyKey() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
-    public String generateRefreshToken(User user) {
-        Map<String, Object> extraClaims = new HashMap<>();
-        return buildToken(extraClaims, user, refreshTokenExpiration);
+    /*
+     * Picks the verification key from the kid header. jjwt then checks that the key type fits
+     * the header's alg, so a token cannot switch an ES256 kid to HS256 (or the reverse).
+     */
+    private class KeyRingResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String kid = header.getKeyId();
+            Key resolved = (kid == null) ? legacyKey : keyRing.verificationKey(kid);
+            if (resolved == null) {
+                throw new SignatureException("No verification key for kid " + kid);
+            }
+            return resolved;
+        }
     }
 
+    // Every token gets a unique jti so it can be revoked individually
     private String buildToken(Map<String, Object> extraClaims, User user, long expirationMillis) {
         long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getEmail())
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + expirationMillis))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.signingKid())
+                .signWith(keyRing.signingKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 }
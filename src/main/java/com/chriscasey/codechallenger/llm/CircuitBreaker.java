@@ -0,0 +1,102 @@
+package com.chriscasey.codechallenger.llm;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker. CLOSED lets calls through and counts failures; at the
+ * threshold it turns OPEN and rejects calls for the open duration. After that exactly one
+ * probe is admitted (HALF_OPEN): success closes the circuit, failure re-opens it.
+ * <p>
+ * Every state change starts a new generation, and each admitted call carries the generation
+ * it was admitted in. Outcomes of calls from an earlier generation (e.g. a slow call that
+ * started before the circuit opened) are ignored, so only the probe can close or re-open it.
+ * A probe whose outcome is never reported is replaced by a new one after another open duration.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Result of {@link #tryAcquire}; report the call's outcome with the same permit. */
+    record Permit(long waitNanos, long generation) {
+        boolean admitted() {
+            return waitNanos == 0L;
+        }
+    }
+
+    // sinceNanos: when the circuit opened (OPEN) or the current probe was admitted (HALF_OPEN)
+    private record Snapshot(State state, int failures, long sinceNanos, long generation) {
+        Snapshot next(State state, int failures, long sinceNanos) {
+            return new Snapshot(state, failures, sinceNanos, generation + 1);
+        }
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(new Snapshot(State.CLOSED, 0, 0L, 0L));
+
+    CircuitBreaker(int failureThreshold, long openNanos, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * @return an admitted permit, or one whose {@link Permit#waitNanos} is roughly how long
+     * until the breaker will admit a probe
+     */
+    Permit tryAcquire() {
+        while (true) {
+            Snapshot s = current.get();
+            if (s.state() == State.CLOSED) {
+                return new Permit(0L, s.generation());
+            }
+            long now = clock.getAsLong();
+            // OPEN: until the open duration has elapsed. HALF_OPEN: while the probe is in flight,
+            // bounded so a probe that never reports back cannot keep the circuit shut.
+            long remaining = s.sinceNanos() + openNanos - now;
+            if (remaining > 0) {
+                return new Permit(remaining, s.generation());
+            }
+            // Whoever wins the CAS is the (new) probe
+            Snapshot halfOpen = s.next(State.HALF_OPEN, s.failures(), now);
+            if (current.compareAndSet(s, halfOpen)) {
+                return new Permit(0L, halfOpen.generation());
+            }
+        }
+    }
+
+    void onSuccess(Permit permit) {
+        current.updateAndGet(s -> {
+            if (s.generation() != permit.generation()) {
+                return s;
+            }
+            return switch (s.state()) {
+                case CLOSED -> s.failures() == 0 ? s : new Snapshot(State.CLOSED, 0, 0L, s.generation());
+                case HALF_OPEN -> s.next(State.CLOSED, 0, 0L);
+                case OPEN -> s;
+            };
+        });
+    }
+
+    void onFailure(Permit permit) {
+        long now = clock.getAsLong();
+        current.updateAndGet(s -> {
+            if (s.generation() != permit.generation()) {
+                return s;
+            }
+            return switch (s.state()) {
+                case CLOSED -> s.failures() + 1 >= failureThreshold
+                        ? s.next(State.OPEN, s.failures() + 1, now)
+                        : new Snapshot(State.CLOSED, s.failures() + 1, 0L, s.generation());
+                case HALF_OPEN -> s.next(State.OPEN, s.failures(), now);
+                case OPEN -> s;
+            };
+        });
+    }
+
+    State state() {
+        return current.get().state();
+    }
+}
@@ -0,0 +1,37 @@
+package com.chriscasey.codechallenger.llm;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ring buffer of the most recent successful call latencies, for the hedging threshold
+final class LatencyTracker {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+
+    LatencyTracker(int capacity) {
+        this.samples = new AtomicLongArray(capacity);
+    }
+
+    void record(long nanos) {
+        long index = recorded.getAndIncrement();
+        samples.set((int) (index % samples.length()), nanos);
+    }
+
+    // Empty until minSamples latencies have been seen
+    OptionalLong percentile(double quantile, int minSamples) {
+        int count = (int) Math.min(recorded.get(), samples.length());
+        if (count < Math.max(1, minSamples)) {
+            return OptionalLong.empty();
+        }
+        long[] copy = new long[count];
+        for (int i = 0; i < count; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int rank = (int) Math.ceil(quantile * count) - 1;
+        return OptionalLong.of(copy[Math.max(0, Math.min(count - 1, rank))]);
+    }
+}
@@ -0,0 +1,304 @@
+package com.chriscasey.codechallenger.llm;
+
+import com.chriscasey.codechallenger.exception.LlmCallException;
+import com.chriscasey.codechallenger.exception.LlmUnavailableException;
+import com.theokanning.openai.OpenAiHttpException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import retrofit2.HttpException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Wraps every LLM call in a concurrency limit, a circuit breaker, budgeted jittered retries and
+ * optional hedging.
+ * <ul>
+ *   <li>At most {@code openai.http.max-requests-per-host} calls run at once. OkHttp's dispatcher only
+ *       limits async (streaming) calls, so the limit is enforced here for sync calls as well. A call
+ *       that cannot get a slot within {@code openai.http.max-wait-ms} fails with
+ *       {@link LlmUnavailableException} (503).</li>
+ *   <li>While the breaker is open calls fail immediately with {@link LlmUnavailableException} (503).</li>
+ *   <li>Timeouts, connection errors, 429 and 5xx are retried with full-jitter exponential backoff,
+ *       as long as the shared {@link RetryBudget} allows.</li>
+ *   <li>With hedging enabled, a second identical request is sent once the first has been running
+ *       longer than the recent p95 latency; the first successful response wins.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+class LlmResilience {
+
+    private static final int HEDGE_MIN_SAMPLES = 20;
+
+    private final Semaphore concurrency;
+    private final long maxWaitNanos;
+    private final CircuitBreaker breaker;
+    private final RetryBudget retryBudget;
+    private final LatencyTracker latencies = new LatencyTracker(256);
+    private final Executor hedgeExecutor;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayNanos;
+
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejections;
+    private final Counter retries;
+    private final Counter hedges;
+
+    LlmResilience(
+            @Qualifier("llmHedgeExecutor") Executor hedgeExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${openai.http.max-requests-per-host:16}") int maxConcurrentCalls,
+            @Value("${openai.http.max-wait-ms:5000}") long maxWaitMs,
+            @Value("${openai.resilience.failure-threshold:5}") int failureThreshold,
+            @Value("${openai.resilience.open-duration-ms:30000}") long openDurationMs,
+            @Value("${openai.resilience.max-attempts:3}") int maxAttempts,
+            @Value("${openai.resilience.backoff-base-ms:200}") long backoffBaseMs,
+            @Value("${openai.resilience.backoff-max-ms:2000}") long backoffMaxMs,
+            @Value("${openai.resilience.retry-budget.ratio:0.2}") double retryRatio,
+            @Value("${openai.resilience.retry-budget.max-tokens:10}") int retryMaxTokens,
+            @Value("${openai.resilience.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${openai.resilience.hedge.min-delay-ms:500}") long hedgeMinDelayMs
+    ) {
+        this.concurrency = new Semaphore(Math.max(1, maxConcurrentCalls));
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.breaker = new CircuitBreaker(failureThreshold, TimeUnit.MILLISECONDS.toNanos(openDurationMs), System::nanoTime);
+        this.retryBudget = new RetryBudget(retryRatio, retryMaxTokens);
+        this.hedgeExecutor = hedgeExecutor;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs);
+
+        this.successes = outcome(meterRegistry, "success");
+        this.failures = outcome(meterRegistry, "failure");
+        this.rejections = outcome(meterRegistry, "rejected");
+        this.retries = Counter.builder("openai.calls.retries").register(meterRegistry);
+        this.hedges = Counter.builder("openai.calls.hedges").register(meterRegistry);
+        Gauge.builder("openai.circuit.state", breaker, b -> b.state().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+    }
+
+    <T> T call(Supplier<T> attempt) {
+        acquireSlot();
+        try {
+            return limitedCall(attempt);
+        } finally {
+            concurrency.release();
+        }
+    }
+
+    // Waiting for a slot is local back-pressure, not an upstream failure, so the breaker never sees it
+    private void acquireSlot() {
+        try {
+            if (!concurrency.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                rejections.increment();
+                throw new LlmUnavailableException("Too many challenge generations in progress, please retry shortly", 1);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LlmCallException("Interrupted while waiting for an OpenAI slot", ex);
+        }
+    }
+
+    private <T> T limitedCall(Supplier<T> attempt) {
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (!permit.admitted()) {
+            rejections.increment();
+            throw new LlmUnavailableException("Challenge generation is temporarily unavailable, please retry later",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(permit.waitNanos() + 999_999_999L)));
+        }
+        retryBudget.onRequest();
+
+        boolean reported = false;
+        try {
+            RuntimeException last = null;
+            int attemptNo = 1;
+            while (true) {
+                try {
+                    T result = hedged(attempt);
+                    breaker.onSuccess(permit);
+                    reported = true;
+                    successes.increment();
+                    return result;
+                } catch (RuntimeException ex) {
+                    if (!isRetryable(ex)) {
+                        // Upstream answered (e.g. 400/401): not a health problem, so don't trip the breaker
+                        breaker.onSuccess(permit);
+                        reported = true;
+                        failures.increment();
+                        throw new LlmCallException("OpenAI chat call failed", ex);
+                    }
+                    last = ex;
+                }
+                if (attemptNo >= maxAttempts || !retryBudget.tryWithdraw()) {
+                    break;
+                }
+                retries.increment();
+                log.debug("Retrying OpenAI call after attempt {} failed: {}", attemptNo, last.getMessage());
+                sleep(backoff(attemptNo));
+                attemptNo++;
+            }
+
+            failures.increment();
+            throw new LlmCallException("OpenAI chat call failed", last);
+        } finally {
+            // Every other exit (retries exhausted, interrupted backoff, an Error) counts as a failure,
+            // so a half-open probe always reports back
+            if (!reported) {
+                breaker.onFailure(permit);
+            }
+        }
+    }
+
+    private <T> T hedged(Supplier<T> attempt) {
+        Supplier<T> timed = () -> {
+            long start = System.nanoTime();
+            T result = attempt.get();
+            latencies.record(System.nanoTime() - start);
+            return result;
+        };
+
+        OptionalLong p95 = hedgeEnabled ? latencies.percentile(0.95, HEDGE_MIN_SAMPLES) : OptionalLong.empty();
+        if (p95.isEmpty()) {
+            return timed.get();
+        }
+
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(timed, hedgeExecutor);
+        } catch (RejectedExecutionException ex) {
+            return timed.get();
+        }
+
+        try {
+            return await(primary, Math.max(p95.getAsLong(), hedgeMinDelayNanos));
+        } catch (TimeoutException slow) {
+            if (!retryBudget.tryWithdraw()) {
+                return await(primary);
+            }
+            // The backup is an extra request, so it needs a slot of its own; no free slot, no hedge
+            if (!concurrency.tryAcquire()) {
+                return await(primary);
+            }
+            CompletableFuture<T> backup;
+            try {
+                backup = CompletableFuture.supplyAsync(timed, hedgeExecutor);
+            } catch (RejectedExecutionException ex) {
+                concurrency.release();
+                return await(primary);
+            }
+            // Held until the loser finishes too, so the slot count never drops below the requests in flight
+            CompletableFuture.allOf(primary, backup).whenComplete((ignored, error) -> concurrency.release());
+            hedges.increment();
+            // The losing call is left to finish on its own; its result is discarded
+            return await(firstSuccessful(primary, backup));
+        }
+    }
+
+    // Completes with the first successful result, or with the last failure if both fail
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> a, CompletableFuture<T> b) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        for (CompletableFuture<T> future : List.of(a, b)) {
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(value);
+                } else if (failed.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    private static <T> T await(CompletableFuture<T> future, long timeoutNanos) throws TimeoutException {
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LlmCallException("Interrupted while waiting for OpenAI", ex);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LlmCallException("Interrupted while waiting for OpenAI", ex);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new LlmCallException("OpenAI chat call failed", cause);
+    }
+
+    // Timeouts, connection failures, throttling and server errors are worth another try
+    static boolean isRetryable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof OpenAiHttpException http) {
+                return http.statusCode == 429 || http.statusCode >= 500;
+            }
+            if (t instanceof HttpException http) {
+                return http.code() == 429 || http.code() >= 500;
+            }
+            if (t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    private long backoff(int attemptNo) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attemptNo - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LlmCallException("Interrupted while backing off", ex);
+        }
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("openai.calls")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.chriscasey.codechallenger.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theokanning.openai.client.OpenAiApi;
+import com.theokanning.openai.service.OpenAiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import retrofit2.Retrofit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived OpenAI client shared by every LLM call, so connections, TLS sessions
+ * and the dispatcher are reused instead of being rebuilt per request.
+ */
+@Configuration
+public class OpenAiClientConfig {
+
+    @Bean
+    public OkHttpClient openAiHttpClient(
+            @Value("${openai.api.key}") String apiKey,
+            @Value("${openai.timeout.seconds:30}") long timeoutSeconds,
+            @Value("${openai.http.max-idle-connections:10}") int maxIdleConnections,
+            @Value("${openai.http.keep-alive-seconds:300}") long keepAliveSeconds,
+            @Value("${openai.http.max-requests:64}") int maxRequests,
+            @Value("${openai.http.max-requests-per-host:16}") int maxRequestsPerHost,
+            @Value("${app.virtual-threads.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry
+    ) {
+        // Async/streaming calls run on the dispatcher's executor; use virtual threads when enabled.
+        // These limits only apply to those async calls: LlmResilience caps sync calls (and streaming
+        // ones) with the same max-requests-per-host value.
+        Dispatcher dispatcher = virtualThreads
+                ? new Dispatcher(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("openai-vt-", 0).factory()))
+                : new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        // Start from the SDK defaults (auth interceptor, timeouts) and replace the pooling pieces
+        return OpenAiService.defaultClient(apiKey, Duration.ofSeconds(timeoutSeconds))
+                .newBuilder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                // HTTP/2 is negotiated via ALPN and multiplexes concurrent calls over one connection
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .eventListenerFactory(new OpenAiHttpMetrics(meterRegistry))
+                .build();
+    }
+
+    @Bean(destroyMethod = "shutdownExecutor")
+    public OpenAiService openAiService(
+            OkHttpClient openAiHttpClient,
+            @Value("${openai.api.base:}") String baseUrl
+    ) {
+        ObjectMapper mapper = OpenAiService.defaultObjectMapper();
+        Retrofit retrofit = OpenAiService.defaultRetrofit(openAiHttpClient, mapper);
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            retrofit = retrofit.newBuilder()
+                    .baseUrl(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/")
+                    .build();
+        }
+        return new OpenAiService(retrofit.create(OpenAiApi.class), openAiHttpClient.dispatcher().executorService());
+    }
+}
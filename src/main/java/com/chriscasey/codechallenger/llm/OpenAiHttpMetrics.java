@@ -0,0 +1,79 @@
+package com.chriscasey.codechallenger.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records whether each OpenAI call reused a pooled connection and how long new
+ * connections (TCP + TLS) took to set up.
+ */
+class OpenAiHttpMetrics implements EventListener.Factory {
+
+    private final Counter pooledConnections;
+    private final Counter newConnections;
+    private final Timer connectSuccess;
+    private final Timer connectFailure;
+
+    OpenAiHttpMetrics(MeterRegistry registry) {
+        this.pooledConnections = Counter.builder("openai.http.connections.acquired")
+                .tag("pooled", "true")
+                .register(registry);
+        this.newConnections = Counter.builder("openai.http.connections.acquired")
+                .tag("pooled", "false")
+                .register(registry);
+        this.connectSuccess = Timer.builder("openai.http.connect")
+                .tag("outcome", "success")
+                .register(registry);
+        this.connectFailure = Timer.builder("openai.http.connect")
+                .tag("outcome", "failure")
+                .register(registry);
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallListener();
+    }
+
+    // One instance per call; OkHttp delivers a call's events sequentially
+    private final class CallListener extends EventListener {
+
+        private long connectStartNanos;
+        private boolean connected;
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            connected = true;
+            connectSuccess.record(System.nanoTime() - connectStartNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress address, Proxy proxy,
+                                  Protocol protocol, IOException ioe) {
+            connectFailure.record(System.nanoTime() - connectStartNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            if (connected) {
+                newConnections.increment();
+            } else {
+                pooledConnections.increment();
+            }
+        }
+    }
+}
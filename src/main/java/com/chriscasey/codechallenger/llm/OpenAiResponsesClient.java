@@ -2,14 +2,14 @@ package com.chriscasey.codechallenger.llm;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.chriscasey.codechallenger.exception.LlmCallException;
 import lombok.RequiredArgsConstructor;
 import okhttp3.MediaType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
-
 import com.theokanning.openai.service.OpenAiService;
+import com.theokanning.openai.completion.chat.ChatCompletionChunk;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import java.util.List;
@@ -21,12 +21,8 @@ public class OpenAiResponsesClient {
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
     private final ObjectMapper objectMapper;
-
-    @Value("${openai.api.base:}")
-    private String baseUrl;
-
-    @Value("${openai.api.key}")
-    private String apiKey;
+    private final OpenAiService service;
+    private final LlmResilience resilience;
 
     // e.g. gpt-4o-mini (ensure the model is available for your key)
     @Value("${openai.model:gpt-4o-mini}")
@@ -39,19 +35,22 @@ public class OpenAiResponsesClient {
     @Value("${openai.reasoning.effort:}")
     private String reasoningEffort;      // minimal | low | medium | high
 
-    @Value("${openai.timeout.seconds:30}")
-    private long timeoutSeconds;
-
     @Value("${openai.temperature:1}")
     private double temperature;
 
+    // Stream the completion and stop reading once the first JSON value is complete
+    @Value("${openai.streaming.enabled:true}")
+    private boolean streaming;
+
     /**
      * Calls OpenAI Chat Completions and wraps the assistant text into:
      * { "output_text": "..." } so downstream parsing remains unchanged.
+     * When streaming, output_text is just the first complete JSON value in the output
+     * (or the full text if none was found).
+     * Uses the shared {@link OpenAiService} from {@link OpenAiClientConfig}; failures surface as
+     * {@code LlmUnavailableException} (breaker open) or {@link LlmCallException}.
      */
     public JsonNode createResponse(String system, String user) {
-        OpenAiService service = new OpenAiService(apiKey, Duration.ofSeconds(timeoutSeconds));
-
         ChatCompletionRequest request = ChatCompletionRequest.builder()
                 .model(model)
                 .messages(List.of(
@@ -62,20 +61,39 @@ public class OpenAiResponsesClient {
                 .n(1)
                 .build();
 
-        String content;
-        try {
-            var result = service.createChatCompletion(request);
-            if (result == null || result.getChoices() == null || result.getChoices().isEmpty()) {
-                throw new RuntimeException("OpenAI returned no choices");
-            }
-            var msg = result.getChoices().get(0).getMessage();
-            content = (msg != null && msg.getContent() != null) ? msg.getContent() : "";
-        } catch (Exception e) {
-            throw new RuntimeException("OpenAI chat call failed", e);
-        }
+        String content = streaming
+                ? resilience.call(() -> streamFirstJson(request))
+                : complete(request);
 
         var node = objectMapper.createObjectNode();
         node.put("output_text", content);
         return node;
     }
+
+    private String complete(ChatCompletionRequest request) {
+        var result = resilience.call(() -> service.createChatCompletion(request));
+        if (result == null || result.getChoices() == null || result.getChoices().isEmpty()) {
+            throw new LlmCallException("OpenAI returned no choices", null);
+        }
+        var msg = result.getChoices().get(0).getMessage();
+        return (msg != null && msg.getContent() != null) ? msg.getContent() : "";
+    }
+
+    // takeUntil cancels the subscription, which makes the SDK stop reading and close the response
+    private String streamFirstJson(ChatCompletionRequest request) {
+        StreamingJsonExtractor extractor = new StreamingJsonExtractor(objectMapper.getFactory());
+        service.streamChatCompletion(request)
+                .map(OpenAiResponsesClient::deltaText)
+                .takeUntil(extractor::feed)
+                .blockingLast("");
+        return extractor.json().orElseGet(extractor::rawText);
+    }
+
+    private static String deltaText(ChatCompletionChunk chunk) {
+        if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+            return "";
+        }
+        var delta = chunk.getChoices().get(0).getMessage();
+        return (delta != null && delta.getContent() != null) ? delta.getContent() : "";
+    }
 }
@@ -0,0 +1,40 @@
+package com.chriscasey.codechallenger.llm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global cap on extra (retry and hedge) LLM calls: each first attempt deposits {@code ratio}
+ * of a token, each extra call withdraws a whole one. During an upstream brownout the balance
+ * drains and the extra load stops, instead of multiplying it.
+ */
+final class RetryBudget {
+
+    // Fixed-point: 1 token = 1000 units
+    private static final long UNIT = 1000L;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.deposit = Math.round(ratio * UNIT);
+        this.capacity = Math.max(1, maxTokens) * UNIT;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void onRequest() {
+        balance.accumulateAndGet(deposit, (current, d) -> Math.min(capacity, current + d));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+}
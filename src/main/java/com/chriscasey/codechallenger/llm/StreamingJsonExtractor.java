@@ -0,0 +1,108 @@
+package com.chriscasey.codechallenger.llm;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Incrementally finds the first complete top-level JSON object or array in streamed model
+ * output. Text before the first '{' or '[' (prose, code fences) is skipped; everything after
+ * the value closes is ignored, so the caller can stop the stream as soon as {@link #feed}
+ * returns true. Not thread-safe: one instance per response.
+ */
+final class StreamingJsonExtractor {
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final StringWriter json = new StringWriter();
+    private final JsonGenerator copy;
+    private final StringBuilder raw = new StringBuilder();
+
+    private boolean started;
+    private boolean complete;
+    private boolean failed;
+    private int depth;
+
+    StreamingJsonExtractor(JsonFactory factory) {
+        try {
+            this.parser = factory.createNonBlockingByteArrayParser();
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            this.copy = factory.createGenerator(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Feed the next chunk of model output.
+     *
+     * @return true once the first top-level JSON value is complete
+     */
+    boolean feed(String chunk) {
+        if (complete) {
+            return true;
+        }
+        raw.append(chunk);
+        if (failed) {
+            return false;
+        }
+
+        String text = chunk;
+        if (!started) {
+            int start = firstOpener(chunk);
+            if (start < 0) {
+                return false;
+            }
+            started = true;
+            text = chunk.substring(start);
+        }
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                copy.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd() && --depth == 0) {
+                    copy.flush();
+                    complete = true;
+                    return true;
+                }
+            }
+        } catch (IOException ex) {
+            // Not valid JSON after all; keep collecting raw text for the non-streaming fallback
+            failed = true;
+        }
+        return false;
+    }
+
+    // The complete JSON value (compact form), once feed() has returned true
+    Optional<String> json() {
+        return complete ? Optional.of(json.toString()) : Optional.empty();
+    }
+
+    // Everything received, for parsing the old way when no complete value was found
+    String rawText() {
+        return raw.toString();
+    }
+
+    private static int firstOpener(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
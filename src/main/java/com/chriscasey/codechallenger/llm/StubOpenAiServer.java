@@ -0,0 +1,233 @@
+package com.chriscasey.codechallenger.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal OpenAI-compatible chat completions endpoint for offline load tests. Replays canned
+ * puzzles round-robin with configurable latency and error rate, so the real HTTP client,
+ * retries and circuit breaker are all exercised. Point {@code openai.api.base} at it.
+ * Streaming requests get the content as server-sent chunks, as the real API sends them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "openai.stub.enabled", havingValue = "true")
+public class StubOpenAiServer {
+
+    // Batch prompts ask for "Create N puzzles"; anything else gets a single object
+    private static final Pattern BATCH_SIZE = Pattern.compile("Create (\\d+) puzzles");
+
+    private final ObjectMapper objectMapper;
+    private final Resource responses;
+    private final int port;
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double errorRate;
+    private final int chunkSize;
+    private final long chunkDelayMs;
+
+    private final AtomicLong cursor = new AtomicLong();
+    private List<JsonNode> canned;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public StubOpenAiServer(
+            ObjectMapper objectMapper,
+            @Value("${openai.stub.responses:classpath:openai-stub/challenges.json}") Resource responses,
+            @Value("${openai.stub.port:8089}") int port,
+            @Value("${openai.stub.latency-ms:800}") long latencyMs,
+            @Value("${openai.stub.latency-jitter-ms:400}") long latencyJitterMs,
+            @Value("${openai.stub.error-rate:0}") double errorRate,
+            @Value("${openai.stub.chunk-size:16}") int chunkSize,
+            @Value("${openai.stub.chunk-delay-ms:20}") long chunkDelayMs
+    ) {
+        this.objectMapper = objectMapper;
+        this.responses = responses;
+        this.port = port;
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.errorRate = errorRate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.chunkDelayMs = chunkDelayMs;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        try (InputStream in = responses.getInputStream()) {
+            List<JsonNode> loaded = new ArrayList<>();
+            objectMapper.readTree(in).forEach(loaded::add);
+            if (loaded.isEmpty()) {
+                throw new IllegalStateException("No canned responses in " + responses.getDescription());
+            }
+            canned = loaded;
+        }
+        // Handlers mostly sleep, so one thread per in-flight request is fine
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+        log.info("Stub OpenAI server listening on http://127.0.0.1:{}/ ({} canned puzzles)", port, canned.size());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "{\"error\":{\"message\":\"Method not allowed\"}}");
+                return;
+            }
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            simulateLatency();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                send(exchange, 503, "{\"error\":{\"message\":\"Stub overloaded\",\"type\":\"server_error\"}}");
+                return;
+            }
+            String content = content(batchSize(request));
+            if (request.path("stream").asBoolean(false)) {
+                stream(exchange, request, content);
+                return;
+            }
+            send(exchange, 200, objectMapper.writeValueAsString(completion(request, content)));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String content(int count) throws IOException {
+        if (count <= 1) {
+            return objectMapper.writeValueAsString(next());
+        }
+        ArrayNode array = objectMapper.createArrayNode();
+        for (int i = 0; i < count; i++) {
+            array.add(next());
+        }
+        return objectMapper.writeValueAsString(array);
+    }
+
+    private JsonNode next() {
+        return canned.get((int) (cursor.getAndIncrement() % canned.size()));
+    }
+
+    private ObjectNode completion(JsonNode request, String content) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("id", "chatcmpl-stub-" + cursor.get());
+        root.put("object", "chat.completion");
+        root.put("created", Instant.now().getEpochSecond());
+        root.put("model", request.path("model").asText("stub"));
+        ObjectNode choice = root.putArray("choices").addObject();
+        choice.put("index", 0);
+        ObjectNode message = choice.putObject("message");
+        message.put("role", "assistant");
+        message.put("content", content);
+        choice.put("finish_reason", "stop");
+        ObjectNode usage = root.putObject("usage");
+        usage.put("prompt_tokens", 0);
+        usage.put("completion_tokens", 0);
+        usage.put("total_tokens", 0);
+        return root;
+    }
+
+    // One SSE event per chunkSize characters, then [DONE]; stops quietly if the client hangs up
+    private void stream(HttpExchange exchange, JsonNode request, String content) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < content.length(); i += chunkSize) {
+                String piece = content.substring(i, Math.min(content.length(), i + chunkSize));
+                writeEvent(out, objectMapper.writeValueAsString(chunk(request, piece)));
+                sleep(chunkDelayMs);
+            }
+            writeEvent(out, "[DONE]");
+        } catch (IOException ex) {
+            log.debug("Stub stream closed by client: {}", ex.getMessage());
+        }
+    }
+
+    private ObjectNode chunk(JsonNode request, String piece) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("id", "chatcmpl-stub-" + cursor.get());
+        root.put("object", "chat.completion.chunk");
+        root.put("created", Instant.now().getEpochSecond());
+        root.put("model", request.path("model").asText("stub"));
+        ObjectNode choice = root.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.putObject("delta").put("content", piece);
+        choice.putNull("finish_reason");
+        return root;
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static int batchSize(JsonNode request) {
+        JsonNode messages = request.path("messages");
+        if (!messages.isArray() || messages.isEmpty()) {
+            return 1;
+        }
+        Matcher m = BATCH_SIZE.matcher(messages.get(messages.size() - 1).path("content").asText(""));
+        return m.find() ? Integer.parseInt(m.group(1)) : 1;
+    }
+
+    private void simulateLatency() {
+        long jitter = latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0;
+        sleep(latencyMs + jitter);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
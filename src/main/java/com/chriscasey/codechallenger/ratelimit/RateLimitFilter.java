@@ -0,0 +1,147 @@
+package com.chriscasey.codechallenger.ratelimit;
+
+import com.chriscasey.codechallenger.auth.User;
+import com.chriscasey.codechallenger.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user / per-IP token buckets for the expensive routes: LLM-backed generation,
+ * submissions and the BCrypt-heavy auth endpoints. Runs after {@code JwtAuthFilter} so
+ * authenticated routes are keyed by user id. Rejections go through
+ * {@code GlobalExceptionHandler} (429 + Retry-After).
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final HandlerExceptionResolver exceptionResolver;
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+            MeterRegistry meterRegistry,
+            @Value("${app.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.generate.capacity:5}") long generateCapacity,
+            @Value("${app.rate-limit.generate.refill-per-minute:5}") long generateRefill,
+            @Value("${app.rate-limit.submit.capacity:10}") long submitCapacity,
+            @Value("${app.rate-limit.submit.refill-per-minute:10}") long submitRefill,
+            @Value("${app.rate-limit.login.capacity:10}") long loginCapacity,
+            @Value("${app.rate-limit.login.refill-per-minute:10}") long loginRefill,
+            @Value("${app.rate-limit.register.capacity:5}") long registerCapacity,
+            @Value("${app.rate-limit.register.refill-per-minute:5}") long registerRefill
+    ) {
+        this.exceptionResolver = exceptionResolver;
+        this.enabled = enabled;
+        this.rules = List.of(
+                new Rule("generate", "POST", "/api/challenges/generate", true, generateCapacity, generateRefill, meterRegistry),
+                new Rule("submit", "POST", "/api/challenges/*/submit", true, submitCapacity, submitRefill, meterRegistry),
+                new Rule("login", "POST", "/api/auth/login", false, loginCapacity, loginRefill, meterRegistry),
+                new Rule("register", "POST", "/api/auth/register", false, registerCapacity, registerRefill, meterRegistry)
+        );
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Rule rule = match(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(rule.name + ":" + clientKey(rule, request),
+                key -> new TokenBucket(rule.capacity, rule.refillPerMinute, now));
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos > 0) {
+            rule.rejections.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            exceptionResolver.resolveException(request, response, null,
+                    new RateLimitExceededException(rule.name, retryAfterSeconds));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    // Drop buckets that have fully refilled so idle clients don't accumulate
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private Rule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Rule rule : rules) {
+            if (rule.method.equals(request.getMethod()) && pathMatcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(Rule rule, HttpServletRequest request) {
+        if (rule.perUser) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.getPrincipal() instanceof User user && user.getId() != null) {
+                return "user:" + user.getId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static final class Rule {
+        private final String name;
+        private final String method;
+        private final String pattern;
+        private final boolean perUser;
+        private final long capacity;
+        private final long refillPerMinute;
+        private final Counter rejections;
+
+        private Rule(String name, String method, String pattern, boolean perUser,
+                     long capacity, long refillPerMinute, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.perUser = perUser;
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+            this.rejections = Counter.builder("ratelimit.rejected")
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+    }
+}
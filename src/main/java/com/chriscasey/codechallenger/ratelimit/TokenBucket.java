@@ -0,0 +1,47 @@
+package com.chriscasey.codechallenger.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as GCRA: the whole state is a single "theoretical
+ * arrival time", so refill and consume are one CAS with no background refill thread.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos; // time to refill one token
+    private final long burstToleranceNanos;   // capacity worth of tokens
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long capacity, long refillPerMinute, long nowNanos) {
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("Token bucket capacity and refill rate must be positive");
+        }
+        this.emissionIntervalNanos = 60_000_000_000L / refillPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return 0 if the token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long allowedAt = next - burstToleranceNanos;
+            if (allowedAt > nowNanos) {
+                return allowedAt - nowNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A full bucket carries no state worth keeping
+    boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
@@ -1,20 +1,25 @@
 package com.chriscasey.codechallenger.security;
 
+import com.chriscasey.codechallenger.auth.UserCache;
 import com.chriscasey.codechallenger.auth.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private final UserCache userCache;
     private final UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // If your AuthService uses email as the username, look up by email
-        return userRepository.findByEmail(username)
+        return userCache.findByEmail(username)
                 .map(user -> org.springframework.security.core.userdetails.User
                         .withUsername(user.getEmail())
                         .password(user.getPassword())
@@ -22,4 +27,18 @@ public class CustomUserDetailsService implements UserDetailsService {
                         .build())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
+
+    // Called after a successful login whose stored hash used a lower BCrypt cost than configured
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByEmail(user.getUsername()).ifPresent(entity -> {
+            // Dirty checking flushes at commit; UserEntityListener then evicts the cached copy
+            entity.setPassword(newPassword);
+            log.debug("Upgraded password hash for user {}", entity.getId());
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
 }
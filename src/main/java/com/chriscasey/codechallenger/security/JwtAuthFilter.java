@@ -1,7 +1,10 @@
 package com.chriscasey.codechallenger.security;
 
-import com.chriscasey.codechallenger.auth.UserRepository;
+import com.chriscasey.codechallenger.auth.User;
+import com.chriscasey.codechallenger.auth.UserCache;
+import com.chriscasey.codechallenger.jwt.AccessTokenClaims;
 import com.chriscasey.codechallenger.jwt.JwtService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,20 +13,21 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final CustomUserDetailsService userDetailsService;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final TokenDenyList denyList;
 
     @Override
     protected void doFilterInternal(
@@ -39,20 +43,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String username;
+        AccessTokenClaims claims;
         try {
-            username = jwtService.extractEmail(token);
-        } catch (Exception ex) {
+            // Single signature/expiry verification; invalid or expired tokens stay anonymous
+            claims = jwtService.parseToken(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // Logged out, or issued before a password/role change
+        if (denyList.isRevoked(claims)) {
             filterChain.doFilter(request, response);
             return;
         }
 
+        String username = claims.email();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            var domainUser = userRepository.findByEmail(username).orElse(null);
-            if (domainUser != null && jwtService.isTokenValid(token, domainUser)) {
+            User domainUser = resolvePrincipal(claims);
+            if (domainUser != null) {
+                var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + domainUser.getRole().name()));
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(domainUser, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(domainUser, null, authorities);
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -60,4 +71,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /*
+     * Builds a detached principal straight from the verified claims; the DB is only hit for
+     * tokens issued before the id/role claims existed. Code needing the full entity (e.g. the
+     * password hash) must load it explicitly.
+     */
+    private User resolvePrincipal(AccessTokenClaims claims) {
+        if (claims.hasPrincipalClaims()) {
+            return User.builder()
+                    .id(claims.userId())
+                    .email(claims.email())
+                    .role(claims.role())
+                    .build();
+        }
+        return userCache.findByEmail(claims.email()).orElse(null);
+    }
 }
@@ -0,0 +1,137 @@
+package com.chriscasey.codechallenger.security;
+
+import com.chriscasey.codechallenger.auth.RevokedToken;
+import com.chriscasey.codechallenger.auth.RevokedTokenRepository;
+import com.chriscasey.codechallenger.auth.UserChangedEvent;
+import com.chriscasey.codechallenger.jwt.AccessTokenClaims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory revocation check for access tokens, consulted by {@link JwtAuthFilter} with two
+ * hash lookups per request.
+ * <ul>
+ *   <li>Logout denies a single token by its {@code jti}.</li>
+ *   <li>A change to the user row (password, role, email) denies every token of that user
+ *       issued before the change.</li>
+ * </ul>
+ * An entry is only needed until the tokens it covers would have expired anyway, so the sets hold
+ * at most one access-token lifetime of revocations. Every revocation is also written to
+ * {@code revoked_token} and replayed at startup. Revocations made on another instance are only
+ * seen here after a restart.
+ */
+@Slf4j
+@Component
+public class TokenDenyList {
+
+    private record UserCutoff(Instant issuedBefore, Instant expiresAt) {}
+
+    private final RevokedTokenRepository repository;
+    private final TransactionTemplate requiresNew;
+    private final long accessTokenExpirationMs;
+
+    // jti -> token expiry
+    private final ConcurrentMap<String, Instant> deniedTokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, UserCutoff> userCutoffs = new ConcurrentHashMap<>();
+
+    public TokenDenyList(
+            RevokedTokenRepository repository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${security.jwt.access-token.expiration}") long accessTokenExpirationMs
+    ) {
+        this.repository = repository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.accessTokenExpirationMs = accessTokenExpirationMs;
+        Gauge.builder("auth.deny_list.size", this, list -> list.deniedTokens.size() + list.userCutoffs.size())
+                .description("Revoked access tokens and per-user cutoffs held in memory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        Instant now = Instant.now();
+        repository.findByExpiresAtAfter(now).forEach(this::remember);
+        log.info("Loaded {} revoked tokens and {} user cutoffs", deniedTokens.size(), userCutoffs.size());
+    }
+
+    public boolean isRevoked(AccessTokenClaims claims) {
+        if (claims.tokenId() != null && deniedTokens.containsKey(claims.tokenId())) {
+            return true;
+        }
+        if (claims.userId() == null || claims.issuedAt() == null) {
+            return false;
+        }
+        UserCutoff cutoff = userCutoffs.get(claims.userId());
+        return cutoff != null && claims.issuedAt().isBefore(cutoff.issuedBefore());
+    }
+
+    // Tokens without a jti (issued before it was added) cannot be revoked individually
+    public void revoke(AccessTokenClaims claims) {
+        if (claims.tokenId() == null) {
+            return;
+        }
+        persist(RevokedToken.builder()
+                .jti(claims.tokenId())
+                .revokedAt(Instant.now())
+                .expiresAt(claims.expiresAt())
+                .build());
+    }
+
+    public void revokeAllFor(Long userId) {
+        // iat has second precision: truncating keeps a token issued later in the same second
+        // (e.g. the login that upgraded the password hash) valid
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        persist(RevokedToken.builder()
+                .userId(userId)
+                .revokedAt(cutoff)
+                .expiresAt(cutoff.plusMillis(accessTokenExpirationMs))
+                .build());
+    }
+
+    // After commit, so a rolled-back change revokes nothing
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.userId() != null) {
+            revokeAllFor(event.userId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.deny-list.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        deniedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        userCutoffs.values().removeIf(cutoff -> cutoff.expiresAt().isBefore(now));
+        repository.deleteExpired(now);
+    }
+
+    private void persist(RevokedToken row) {
+        // Memory first: the revocation applies on this instance even if the write fails
+        remember(row);
+        requiresNew.executeWithoutResult(status -> repository.save(row));
+    }
+
+    private void remember(RevokedToken row) {
+        if (row.getJti() != null) {
+            deniedTokens.put(row.getJti(), row.getExpiresAt());
+        } else if (row.getUserId() != null) {
+            userCutoffs.merge(row.getUserId(), new UserCutoff(row.getRevokedAt(), row.getExpiresAt()),
+                    (a, b) -> a.issuedBefore().isAfter(b.issuedBefore()) ? a : b);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.chriscasey.codechallenger;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "security.jwt.signing.allow-ephemeral=true")
 class TasktrackerApplicationTests {
 
 	@Test
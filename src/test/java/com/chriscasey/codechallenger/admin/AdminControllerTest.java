@@ -1,9 +1,13 @@
 package com.chriscasey.codechallenger.admin;
 
+import com.chriscasey.codechallenger.admin.dto.AdminChallengeRow;
 import com.chriscasey.codechallenger.challenge.*;
 import com.chriscasey.codechallenger.auth.User;
+import com.chriscasey.codechallenger.auth.UserCache;
 import com.chriscasey.codechallenger.auth.UserRepository;
+import com.chriscasey.codechallenger.auth.UserSummary;
 import com.chriscasey.codechallenger.jwt.JwtService;
+import com.chriscasey.codechallenger.ratelimit.RateLimitFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +21,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,6 +38,12 @@ class AdminControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private UserCache userCache;
+
+    @MockBean
+    private RateLimitFilter rateLimitFilter;
+
     @MockBean
     private JwtService jwtService;
 
@@ -38,7 +51,10 @@ class AdminControllerTest {
     private com.chriscasey.codechallenger.security.CustomUserDetailsService customUserDetailsService;
 
     @MockBean
-    private CodeChallengeRepository challengeRepository;
+    private com.chriscasey.codechallenger.security.TokenDenyList tokenDenyList;
+
+    @MockBean
+    private AdminChallengeRepository challengeRepository;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -57,30 +73,12 @@ class AdminControllerTest {
                 PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")), 2);
         when(userRepository.findAll(any(Pageable.class))).thenReturn(page);
 
-        CodeChallenge c1 = CodeChallenge.builder()
-                .id(1001L)
-                .user(u1)
-                .title("FizzBuzz")
-                .description("Implement FizzBuzz")
-                .solution(123)
-                .difficulty(1)
-                .failedAttempts(0)
-                .status(ChallengeStatus.PENDING)
-                .build();
-
-        CodeChallenge c2 = CodeChallenge.builder()
-                .id(1002L)
-                .user(u2)
-                .title("Palindrome")
-                .description("Check palindrome")
-                .solution(456)
-                .difficulty(2)
-                .failedAttempts(1)
-                .status(ChallengeStatus.COMPLETED)
-                .completedAt(LocalDateTime.now())
-                .build();
-
-        when(challengeRepository.findByUserIn(any())).thenReturn(List.of(c1, c2));
+        AdminChallengeRow c1 = new AdminChallengeRow(
+                1L, 1001L, "FizzBuzz", "Implement FizzBuzz", 1, ChallengeStatus.PENDING, 0, null, 123);
+        AdminChallengeRow c2 = new AdminChallengeRow(
+                2L, 1002L, "Palindrome", "Check palindrome", 2, ChallengeStatus.COMPLETED, 1, LocalDateTime.now(), 456);
+
+        when(challengeRepository.findAdminRowsByUserIdIn(any())).thenReturn(List.of(c1, c2));
 
         var result = mvc.perform(get("/admin/users")
                         .param("page", "0")
@@ -95,10 +93,39 @@ class AdminControllerTest {
                 .andExpect(jsonPath("$.sortBy").value("id"))
                 .andExpect(jsonPath("$.sortDir").value("desc"))
                 .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].challenges[0].title").value("FizzBuzz"))
                 .andReturn();
 
         // Useful for seeing the response if anything fails
         System.out.println("RESPONSE: " + result.getResponse().getContentAsString());
     }
 
+    @Test
+    void getAllUsersWithChallenges_rejectsUnknownSortColumn() throws Exception {
+        mvc.perform(get("/admin/users").param("sortBy", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUsersByCursor_returnsNextCursor_withoutCounting() throws Exception {
+        when(userRepository.findSummariesBefore(eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(
+                        new UserSummary(30L, "c@example.com"),
+                        new UserSummary(20L, "b@example.com"),
+                        new UserSummary(10L, "a@example.com")
+                ));
+        when(challengeRepository.findAdminRowsByUserIdIn(any())).thenReturn(List.of(
+                new AdminChallengeRow(20L, 2001L, "Sum", "Sum an array", 1, ChallengeStatus.PENDING, 0, null, 6)
+        ));
+
+        mvc.perform(get("/admin/users/cursor").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value(20))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[1].challenges[0].title").value("Sum"));
+
+        verify(userRepository, never()).count();
+    }
+
 }
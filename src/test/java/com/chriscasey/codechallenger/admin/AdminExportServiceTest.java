@@ -0,0 +1,134 @@
+package com.chriscasey.codechallenger.admin;
+
+import com.chriscasey.codechallenger.challenge.ChallengeStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AdminExportServiceTest {
+
+    private static final AdminExportService.ExportFilter NO_FILTER = new AdminExportService.ExportFilter(null, null, null);
+
+    private EmbeddedDatabase dataSource;
+    private PlatformTransactionManager transactionManager;
+    private AdminExportService service;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table users (id bigint primary key, email varchar(255))");
+        jdbc.execute("""
+                create table code_challenge (
+                    id bigint primary key, user_id bigint, title varchar(200), description varchar(2000),
+                    difficulty int, status varchar(32), failed_attempts int, completed_at timestamp, solution int)
+                """);
+        jdbc.update("insert into users values (1, 'alice@example.com'), (2, 'bob@example.com'), (3, '=cmd@example.com')");
+        jdbc.update("insert into code_challenge values (10, 1, 'Sum', 'Add \"a, b\"\nthen return', 1, 'COMPLETED', 2, ?, -7)",
+                LocalDateTime.of(2024, 3, 1, 12, 0));
+        jdbc.update("insert into code_challenge values (11, 1, '=HYPERLINK(\"x\")', '+1', 2, 'PENDING', 0, null, 3)");
+        jdbc.update("insert into code_challenge values (20, 2, 'Max', '@max', 3, 'SKIPPED', 1, null, 9)");
+
+        // A mock manager still lets JdbcTemplate use the data source; it only records the definition
+        transactionManager = mock(PlatformTransactionManager.class);
+        service = new AdminExportService(dataSource, transactionManager, objectMapper, 250);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    private List<String> export(ExportFormat format, AdminExportService.ExportFilter filter) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(format, filter, out);
+        return List.of(out.toString(StandardCharsets.UTF_8).split("\n", -1));
+    }
+
+    @Test
+    void ndjson_writesOneObjectPerLine_withoutSeparatorSpace() throws Exception {
+        List<String> lines = export(ExportFormat.NDJSON, NO_FILTER);
+
+        // 3 challenge rows + user 3 without challenges, then the trailing newline
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(4)).isEmpty();
+        for (String line : lines.subList(0, 4)) {
+            assertThat(line).startsWith("{").endsWith("}");
+            assertThat(objectMapper.readTree(line).isObject()).isTrue();
+        }
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("challengeId").asLong()).isEqualTo(10);
+        assertThat(first.get("description").asText()).isEqualTo("Add \"a, b\"\nthen return");
+        assertThat(first.get("completedAt").asText()).isEqualTo("2024-03-01T12:00");
+        assertThat(objectMapper.readTree(lines.get(3)).get("challengeId").isNull()).isTrue();
+    }
+
+    @Test
+    void csv_quotesSpecialCharacters_andNeutralisesFormulas() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(ExportFormat.CSV, NO_FILTER, out);
+        String csv = out.toString(StandardCharsets.UTF_8);
+
+        assertThat(csv).startsWith("userId,email,challengeId,title,description,difficulty,"
+                + "status,failedAttempts,completedAt,solution\r\n");
+        assertThat(csv).contains("1,alice@example.com,10,Sum,\"Add \"\"a, b\"\"\nthen return\",1,COMPLETED,2,2024-03-01T12:00,-7\r\n");
+        assertThat(csv).contains("1,alice@example.com,11,\"'=HYPERLINK(\"\"x\"\")\",'+1,2,PENDING,0,,3\r\n");
+        assertThat(csv).contains("2,bob@example.com,20,Max,'@max,3,SKIPPED,1,,9\r\n");
+        assertThat(csv).contains("3,'=cmd@example.com,,,,,,,,\r\n");
+    }
+
+    @Test
+    void statusFilter_onlyExportsMatchingChallenges() throws Exception {
+        List<String> lines = export(ExportFormat.NDJSON,
+                new AdminExportService.ExportFilter(ChallengeStatus.PENDING, null, null));
+
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(0)).get("challengeId").asLong()).isEqualTo(11);
+    }
+
+    @Test
+    void completedRangeFilter_isHalfOpen_andDropsUsersWithoutChallenges() throws Exception {
+        List<String> inRange = export(ExportFormat.NDJSON, new AdminExportService.ExportFilter(
+                null, LocalDateTime.of(2024, 3, 1, 12, 0), LocalDateTime.of(2024, 3, 2, 0, 0)));
+        List<String> endExclusive = export(ExportFormat.NDJSON, new AdminExportService.ExportFilter(
+                null, null, LocalDateTime.of(2024, 3, 1, 12, 0)));
+
+        assertThat(inRange).hasSize(2);
+        assertThat(objectMapper.readTree(inRange.get(0)).get("challengeId").asLong()).isEqualTo(10);
+        assertThat(endExclusive).containsExactly("");
+    }
+
+    @Test
+    void export_readsInReadOnlyTransaction_withConfiguredFetchSize() throws Exception {
+        export(ExportFormat.CSV, NO_FILTER);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+        JdbcTemplate jdbcTemplate = (JdbcTemplate) ReflectionTestUtils.getField(service, "jdbcTemplate");
+        assertThat(jdbcTemplate.getFetchSize()).isEqualTo(250);
+    }
+}
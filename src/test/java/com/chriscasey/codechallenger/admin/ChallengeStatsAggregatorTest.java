@@ -0,0 +1,46 @@
+package com.chriscasey.codechallenger.admin;
+
+import com.chriscasey.codechallenger.admin.dto.AdminDifficultyStatsResponse;
+import com.chriscasey.codechallenger.admin.dto.AdminStatsResponse;
+import com.chriscasey.codechallenger.admin.dto.DifficultyAggregateRow;
+import com.chriscasey.codechallenger.challenge.ChallengeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ChallengeStatsAggregatorTest {
+
+    @Test
+    void rebuildThenEvents_produceIncrementalRates() {
+        AdminChallengeRepository repository = mock(AdminChallengeRepository.class);
+        when(repository.aggregateByDifficulty()).thenReturn(List.of(
+                new DifficultyAggregateRow(1, 4L, 2L, 1L, 6L),
+                new DifficultyAggregateRow(3, 2L, 0L, 0L, 0L)
+        ));
+        ChallengeStatsAggregator aggregator =
+                new ChallengeStatsAggregator(repository, mock(ChallengeDifficultyStatsRepository.class));
+        aggregator.rebuild();
+
+        aggregator.onChallengeEvent(new ChallengeEvent(ChallengeEvent.Type.COMPLETED, 1L, 1));
+        aggregator.onChallengeEvent(new ChallengeEvent(ChallengeEvent.Type.FAILED_ATTEMPT, 1L, 1));
+        aggregator.onChallengeEvent(new ChallengeEvent(ChallengeEvent.Type.FAILED_ATTEMPT, 1L, 1));
+        aggregator.onChallengeEvent(new ChallengeEvent(ChallengeEvent.Type.CREATED, 1L, 3));
+        aggregator.onChallengeEvent(new ChallengeEvent(ChallengeEvent.Type.DISCARDED, 1L, 3));
+
+        AdminStatsResponse stats = aggregator.snapshot();
+        AdminDifficultyStatsResponse easy = stats.byDifficulty().get(0);
+        assertThat(easy.created()).isEqualTo(4);
+        assertThat(easy.completionRate()).isEqualTo(0.75);
+        assertThat(easy.skipRate()).isEqualTo(0.25);
+        assertThat(easy.meanFailedAttempts()).isEqualTo(2.0);
+
+        assertThat(stats.byDifficulty().get(2).created()).isEqualTo(2);
+        assertThat(stats.byDifficulty().get(4).completionRate()).isZero();
+        assertThat(stats.overall().created()).isEqualTo(6);
+        assertThat(stats.overall().completed()).isEqualTo(3);
+        verify(repository, times(1)).aggregateByDifficulty();
+    }
+}
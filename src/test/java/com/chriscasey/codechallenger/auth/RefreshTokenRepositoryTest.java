@@ -0,0 +1,77 @@
+package com.chriscasey.codechallenger.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the native MERGE against H2 in the same PostgreSQL mode the application uses
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:refresh-token-test;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persistAndFlush(User.builder()
+                .email("u@test.com").password("x").role(Role.USER).build());
+    }
+
+    @Test
+    void upsert_insertsFirstTokenThenReplacesIt() {
+        Instant expiry = Instant.now().plus(1, ChronoUnit.DAYS);
+
+        repository.upsert(user.getId(), RefreshTokenService.hash("first"), expiry);
+        repository.upsert(user.getId(), RefreshTokenService.hash("second"), expiry);
+        entityManager.clear();
+
+        List<RefreshToken> rows = repository.findAll();
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getTokenHash()).isEqualTo(RefreshTokenService.hash("second"));
+    }
+
+    @Test
+    void rotate_onlyMatchesTheCurrentUnexpiredToken() {
+        Instant now = Instant.now();
+        Instant expiry = now.plus(1, ChronoUnit.DAYS);
+        repository.upsert(user.getId(), RefreshTokenService.hash("current"), expiry);
+
+        assertThat(repository.rotate(user.getId(), RefreshTokenService.hash("stale"),
+                RefreshTokenService.hash("next"), expiry, now)).isZero();
+        assertThat(repository.rotate(user.getId(), RefreshTokenService.hash("current"),
+                RefreshTokenService.hash("next"), expiry, now)).isEqualTo(1);
+        // The old token is gone after the first successful rotation
+        assertThat(repository.rotate(user.getId(), RefreshTokenService.hash("current"),
+                RefreshTokenService.hash("again"), expiry, now)).isZero();
+    }
+
+    @Test
+    void rotate_expiredToken_isRejected() {
+        Instant now = Instant.now();
+        repository.upsert(user.getId(), RefreshTokenService.hash("old"), now.minusSeconds(1));
+
+        assertThat(repository.rotate(user.getId(), RefreshTokenService.hash("old"),
+                RefreshTokenService.hash("next"), now.plusSeconds(60), now)).isZero();
+    }
+}
@@ -0,0 +1,80 @@
+package com.chriscasey.codechallenger.auth;
+
+import com.chriscasey.codechallenger.exception.RefreshTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    private RefreshTokenRepository repository;
+    private RefreshTokenService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RefreshTokenRepository.class);
+        service = new RefreshTokenService(repository);
+        ReflectionTestUtils.setField(service, "refreshTokenExpirationMs", 60_000L);
+        user = User.builder().id(42L).email("u@test.com").build();
+    }
+
+    @Test
+    void createRefreshToken_upsertsOnlyTheDigest() {
+        String token = service.createRefreshToken(user);
+
+        assertThat(token).startsWith("42.");
+        verify(repository).upsert(eq(42L), aryEq(RefreshTokenService.hash(token)), any());
+    }
+
+    @Test
+    void createRefreshToken_lostInsertRace_retriesOnce() {
+        when(repository.upsert(eq(42L), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(1);
+
+        String token = service.createRefreshToken(user);
+
+        verify(repository, times(2)).upsert(eq(42L), aryEq(RefreshTokenService.hash(token)), any());
+    }
+
+    @Test
+    void createRefreshToken_persistentFailure_propagates() {
+        when(repository.upsert(eq(42L), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThatThrownBy(() -> service.createRefreshToken(user))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(repository, times(2)).upsert(eq(42L), any(), any());
+    }
+
+    @Test
+    void rotate_swapsTokenInOneConditionalUpdate() {
+        String old = service.createRefreshToken(user);
+        when(repository.rotate(eq(42L), aryEq(RefreshTokenService.hash(old)), any(), any(), any())).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = service.rotate(old);
+
+        assertThat(rotation.userId()).isEqualTo(42L);
+        assertThat(rotation.refreshToken()).startsWith("42.").isNotEqualTo(old);
+    }
+
+    @Test
+    void rotate_staleOrUnknownToken_isRejected() {
+        when(repository.rotate(anyLong(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.rotate("42.reused"))
+                .isInstanceOf(RefreshTokenException.class);
+        assertThatThrownBy(() -> service.rotate("not-a-token"))
+                .isInstanceOf(RefreshTokenException.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.chriscasey.codechallenger.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    private UserRepository repository;
+    private UserCache cache;
+    private User stored;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        cache = new UserCache(repository, new SimpleMeterRegistry(), 100, 300);
+
+        stored = new User(1L, "cache@example.com", "hash", Role.USER);
+        when(repository.findByEmail("cache@example.com")).thenReturn(Optional.of(stored));
+    }
+
+    @Test
+    void findByEmail_loadsOnce_andServesByIdFromCache() {
+        assertThat(cache.findByEmail("cache@example.com")).isPresent();
+        assertThat(cache.findByEmail("cache@example.com")).isPresent();
+        assertThat(cache.findById(1L)).hasValueSatisfying(u -> assertThat(u.getEmail()).isEqualTo("cache@example.com"));
+
+        verify(repository, times(1)).findByEmail("cache@example.com");
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void findByEmail_returnsDetachedCopies() {
+        User first = cache.findByEmail("cache@example.com").orElseThrow();
+        first.setRole(Role.ADMIN);
+
+        User second = cache.findByEmail("cache@example.com").orElseThrow();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getRole()).isEqualTo(Role.USER);
+    }
+
+    @Test
+    void onUserChanged_evicts_soNextLookupReloads() {
+        cache.findByEmail("cache@example.com");
+
+        cache.onUserChanged(new UserChangedEvent(1L, "cache@example.com"));
+        cache.findByEmail("cache@example.com");
+
+        verify(repository, times(2)).findByEmail("cache@example.com");
+    }
+
+    @Test
+    void missingUser_isNotCached() {
+        when(repository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        assertThat(cache.findByEmail("nobody@example.com")).isEmpty();
+        assertThat(cache.findByEmail("nobody@example.com")).isEmpty();
+
+        verify(repository, times(2)).findByEmail("nobody@example.com");
+    }
+
+    @Test
+    void evictionDuringLoad_isNotUndoneByTheCrossPut() {
+        // The row changes and is evicted after the load read it, before the byId put
+        when(repository.findByEmail("cache@example.com")).thenAnswer(inv -> {
+            cache.evict(1L, null);
+            return Optional.of(stored);
+        });
+        User updated = new User(1L, "cache@example.com", "hash", Role.ADMIN);
+        when(repository.findById(1L)).thenReturn(Optional.of(updated));
+
+        cache.findByEmail("cache@example.com");
+
+        assertThat(cache.findById(1L)).hasValueSatisfying(u -> assertThat(u.getRole()).isEqualTo(Role.ADMIN));
+        verify(repository).findById(1L);
+    }
+
+    @Test
+    void findById_seedsEmailCache() {
+        when(repository.findById(1L)).thenReturn(Optional.of(stored));
+
+        cache.findById(1L);
+        cache.findByEmail("cache@example.com");
+
+        verify(repository, never()).findByEmail(any());
+    }
+}
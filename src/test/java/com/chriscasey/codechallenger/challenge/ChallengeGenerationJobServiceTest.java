@@ -0,0 +1,133 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.auth.User;
+import com.chriscasey.codechallenger.challenge.dto.CodeChallengeResponse;
+import com.chriscasey.codechallenger.challenge.dto.GenerationJobResponse;
+import com.chriscasey.codechallenger.exception.ChallengeGenerationBusyException;
+import com.chriscasey.codechallenger.exception.NotFoundException;
+import com.chriscasey.codechallenger.exception.TooManyChallengesException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ChallengeGenerationJobServiceTest {
+
+    private CodeChallengeService challengeService;
+    private List<Runnable> queued;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        challengeService = mock(CodeChallengeService.class);
+        queued = new ArrayList<>();
+        user = new User();
+        user.setId(1L);
+        when(challengeService.reservePlaceholder(user, null)).thenReturn(
+                CodeChallenge.builder().id(5L).user(user).status(ChallengeStatus.GENERATING).build());
+    }
+
+    private ChallengeGenerationJobService newService(Executor executor) {
+        return new ChallengeGenerationJobService(challengeService, executor, 10, 1000, 300_000);
+    }
+
+    @Test
+    void submit_returnsRunningJobForPlaceholder() {
+        ChallengeGenerationJobService service = newService(queued::add);
+
+        GenerationJobResponse job = service.submit(user, null);
+
+        assertThat(job.status()).isEqualTo(GenerationJobStatus.RUNNING);
+        assertThat(job.challengeId()).isEqualTo(5L);
+        assertThat(queued).hasSize(1);
+        verify(challengeService, never()).completePlaceholder(any());
+    }
+
+    @Test
+    void submit_atLimit_propagatesWithoutCreatingJob() {
+        when(challengeService.reservePlaceholder(user, 2)).thenThrow(new TooManyChallengesException("limit"));
+        ChallengeGenerationJobService service = newService(queued::add);
+
+        assertThatThrownBy(() -> service.submit(user, 2)).isInstanceOf(TooManyChallengesException.class);
+
+        assertThat(queued).isEmpty();
+    }
+
+    @Test
+    void completedJob_exposesGeneratedChallenge() {
+        CodeChallengeResponse generated = new CodeChallengeResponse(
+                5L, "Sum", "Sum an array", 1, ChallengeStatus.PENDING, 0, null);
+        when(challengeService.completePlaceholder(5L)).thenReturn(generated);
+        ChallengeGenerationJobService service = newService(queued::add);
+
+        String jobId = service.submit(user, null).jobId();
+        queued.forEach(Runnable::run);
+
+        GenerationJobResponse job = service.get(user, jobId);
+        assertThat(job.status()).isEqualTo(GenerationJobStatus.COMPLETED);
+        assertThat(job.challenge()).isEqualTo(generated);
+        assertThat(job.error()).isNull();
+    }
+
+    @Test
+    void failedJob_reportsGenericError() {
+        when(challengeService.completePlaceholder(5L)).thenThrow(new IllegalStateException("LLM timeout"));
+        ChallengeGenerationJobService service = newService(Runnable::run);
+
+        GenerationJobResponse submitted = service.submit(user, null);
+
+        GenerationJobResponse job = service.get(user, submitted.jobId());
+        assertThat(job.status()).isEqualTo(GenerationJobStatus.FAILED);
+        assertThat(job.challenge()).isNull();
+        assertThat(job.error()).isEqualTo("Challenge generation failed");
+    }
+
+    @Test
+    void rejectedJob_discardsPlaceholderAndIsShedWithRetryAfter() {
+        ChallengeGenerationJobService service = newService(task -> {
+            throw new TaskRejectedException("queue full");
+        });
+
+        assertThatThrownBy(() -> service.submit(user, null))
+                .isInstanceOf(ChallengeGenerationBusyException.class)
+                .satisfies(ex -> assertThat(((ChallengeGenerationBusyException) ex).getRetryAfterSeconds()).isPositive());
+
+        verify(challengeService).tryDiscardPlaceholder(5L);
+        verify(challengeService, never()).completePlaceholder(any());
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(service, "jobs")).isEmpty();
+    }
+
+    @Test
+    void get_otherUsersJob_isNotFound() {
+        ChallengeGenerationJobService service = newService(queued::add);
+        String jobId = service.submit(user, null).jobId();
+        User other = new User();
+        other.setId(2L);
+
+        assertThatThrownBy(() -> service.get(other, jobId)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void discardStalePlaceholders_usesJobTimeoutAsCutoff() {
+        ChallengeGenerationJobService service = newService(queued::add);
+        LocalDateTime before = LocalDateTime.now();
+
+        service.discardStalePlaceholders();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(challengeService).discardStalePlaceholders(cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(before.minusMinutes(5), LocalDateTime.now().minusMinutes(5));
+    }
+}
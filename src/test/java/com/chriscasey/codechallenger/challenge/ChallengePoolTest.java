@@ -0,0 +1,92 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChallengePoolTest {
+
+    private ChallengeSource generator;
+    private ChallengePool pool;
+
+    @BeforeEach
+    void setUp() {
+        generator = mock(ChallengeSource.class);
+        when(generator.generateBatch(anyInt(), anyInt())).thenAnswer(inv -> {
+            int difficulty = inv.getArgument(0);
+            int count = inv.getArgument(1);
+            List<GeneratedChallenge> batch = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                batch.add(new GeneratedChallenge("t" + i, "d", 1, difficulty));
+            }
+            return batch;
+        });
+        // Run refills inline so the test is deterministic
+        pool = new ChallengePool(generator, Runnable::run, true, 2, 4);
+    }
+
+    @Test
+    void refill_fillsEveryBucketToHighWatermark() {
+        pool.refillBelowLowWatermark();
+
+        for (int d = 1; d <= 5; d++) {
+            assertThat(pool.size(d)).isEqualTo(4);
+        }
+        // One batched call per bucket
+        verify(generator, times(5)).generateBatch(anyInt(), eq(4));
+    }
+
+    @Test
+    void take_drawsFromBucket_andRefillsBelowLowWatermark() {
+        pool.refillBelowLowWatermark();
+        clearInvocations(generator);
+
+        assertThat(pool.take(3)).hasValueSatisfying(gc -> assertThat(gc.difficulty()).isEqualTo(3));
+        assertThat(pool.take(3)).isPresent();
+        verify(generator, never()).generateBatch(anyInt(), anyInt());
+
+        // Third take leaves 1 < low watermark (2) -> refill back to 4
+        assertThat(pool.take(3)).isPresent();
+        assertThat(pool.size(3)).isEqualTo(4);
+        verify(generator).generateBatch(3, 3);
+    }
+
+    @Test
+    void refill_stopsWhenBatchComesBackEmpty() {
+        when(generator.generateBatch(anyInt(), anyInt())).thenReturn(List.of());
+
+        pool.refillBelowLowWatermark();
+
+        assertThat(pool.size(1)).isZero();
+        verify(generator, times(5)).generateBatch(anyInt(), eq(4));
+    }
+
+    @Test
+    void refill_capsPassesWhenBatchesStayShort() {
+        when(generator.generateBatch(anyInt(), anyInt())).thenAnswer(inv -> {
+            int difficulty = inv.getArgument(0);
+            return List.of(new GeneratedChallenge("t", "d", 1, difficulty));
+        });
+
+        pool.refillBelowLowWatermark();
+
+        assertThat(pool.size(1)).isEqualTo(3);
+        verify(generator, times(3)).generateBatch(eq(1), anyInt());
+    }
+
+    @Test
+    void take_returnsEmpty_whenDisabled() {
+        ChallengePool disabled = new ChallengePool(generator, Runnable::run, false, 2, 4);
+
+        assertThat(disabled.take(1)).isEmpty();
+        verifyNoInteractions(generator);
+    }
+}
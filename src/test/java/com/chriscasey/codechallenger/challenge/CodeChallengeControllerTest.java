@@ -0,0 +1,132 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.auth.User;
+import com.chriscasey.codechallenger.auth.UserCache;
+import com.chriscasey.codechallenger.auth.UserRepository;
+import com.chriscasey.codechallenger.challenge.dto.CodeChallengeResponse;
+import com.chriscasey.codechallenger.challenge.dto.GenerationJobResponse;
+import com.chriscasey.codechallenger.jwt.JwtService;
+import com.chriscasey.codechallenger.ratelimit.RateLimitFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CodeChallengeController.class)
+@AutoConfigureMockMvc(addFilters = false) // disables security for controller test
+class CodeChallengeControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private CodeChallengeService challengeService;
+
+    @MockBean
+    private ChallengeGenerationJobService generationJobService;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private UserCache userCache;
+
+    @MockBean
+    private RateLimitFilter rateLimitFilter;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private com.chriscasey.codechallenger.security.CustomUserDetailsService customUserDetailsService;
+
+    @MockBean
+    private com.chriscasey.codechallenger.security.TokenDenyList tokenDenyList;
+
+    private User user;
+
+    @BeforeEach
+    void authenticate() {
+        // @CurrentUser reads the principal straight from the security context
+        user = new User();
+        user.setId(1L);
+        user.setEmail("alice@example.com");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void generate_async_returnsAcceptedWithJobLocation() throws Exception {
+        when(generationJobService.submit(any(User.class), eq(3))).thenReturn(
+                new GenerationJobResponse("job-1", GenerationJobStatus.RUNNING, 5L, null, null));
+
+        mvc.perform(post("/api/challenges/generate")
+                        .param("async", "true")
+                        .param("difficulty", "3"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/challenges/generate/jobs/job-1"))
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.challengeId").value(5));
+
+        verify(challengeService, never()).generateNewChallenge(any());
+        verify(challengeService, never()).generateNewChallenge(any(), any());
+    }
+
+    @Test
+    void generate_withoutAsync_generatesInline() throws Exception {
+        when(challengeService.generateNewChallenge(any(User.class))).thenReturn(
+                new CodeChallengeResponse(6L, "Sum", "Sum an array", 1, ChallengeStatus.PENDING, 0, null));
+
+        mvc.perform(post("/api/challenges/generate"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(6));
+
+        verify(generationJobService, never()).submit(any(), any());
+    }
+
+    @Test
+    void jobEvents_streamsFinalStatus() throws Exception {
+        SseEmitter emitter = new SseEmitter(1000L);
+        when(generationJobService.subscribe(any(User.class), eq("job-1"))).thenReturn(emitter);
+
+        MvcResult result = mvc.perform(get("/api/challenges/generate/jobs/job-1/events")
+                        .accept("text/event-stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        emitter.send(SseEmitter.event().name("completed")
+                .data(new GenerationJobResponse("job-1", GenerationJobStatus.COMPLETED, 5L, null, null)));
+        emitter.complete();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("event:completed")))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("\"status\":\"COMPLETED\"")));
+    }
+}
@@ -1,6 +1,7 @@
 package com.chriscasey.codechallenger.challenge;
 
 import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import com.chriscasey.codechallenger.exception.LlmParseException;
 import com.chriscasey.codechallenger.llm.OpenAiResponsesClient;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,6 +10,8 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -56,6 +59,74 @@ class CodeChallengeGeneratorTest {
         assertThat(gc.solution()).isEqualTo(42);
     }
 
+    @Test
+    void generateBatch_keepsValidElements_andDropsInvalidOnes() {
+        String payload = """
+                ```json
+                [
+                  { "title":"A", "description":"B", "solution":1, "difficulty":2 },
+                  { "title":"C", "solution":"not a number" },
+                  { "title":"E", "description":"F", "solution":3 }
+                ]
+                ```
+                """;
+        when(openAi.createResponse(anyString(), anyString()))
+                .thenReturn(nodeWithOutputText(payload));
+
+        List<GeneratedChallenge> batch = generator.generateBatch(2, 3);
+
+        assertThat(batch).extracting(GeneratedChallenge::title).containsExactly("A", "E");
+        assertThat(batch.get(1).difficulty()).isEqualTo(2);
+        verify(openAi, times(1)).createResponse(anyString(), anyString());
+    }
+
+    @Test
+    void generateBatch_failsWhenNoElementIsValid() {
+        when(openAi.createResponse(anyString(), anyString()))
+                .thenReturn(nodeWithOutputText("[{\"title\":\"only\"}]"));
+
+        assertThatThrownBy(() -> generator.generateBatch(1, 2))
+                .isInstanceOf(LlmParseException.class);
+    }
+
+    @Test
+    void generateBatch_singleObjectWithBracketsInDescription_isParsedAsOneElement() {
+        // Unfenced; slicing from the first '[' to the last ']' would yield "[1, 2, 3]"
+        String payload = "Here is your puzzle: {\"title\":\"Sum\","
+                + "\"description\":\"Add up [1, 2, 3] and then [4, 5]\",\"solution\":15,\"difficulty\":2}";
+        when(openAi.createResponse(anyString(), anyString()))
+                .thenReturn(nodeWithOutputText(payload));
+
+        List<GeneratedChallenge> batch = generator.generateBatch(2, 3);
+
+        assertThat(batch).hasSize(1);
+        assertThat(batch.get(0).title()).isEqualTo("Sum");
+        assertThat(batch.get(0).description()).isEqualTo("Add up [1, 2, 3] and then [4, 5]");
+        assertThat(batch.get(0).solution()).isEqualTo(15);
+    }
+
+    @Test
+    void generateBatch_unfencedArrayWithSurroundingProse_isParsed() {
+        String payload = "[Note] Puzzles below:\n"
+                + "[{\"title\":\"A\",\"description\":\"Use [x]\",\"solution\":1},"
+                + "{\"title\":\"B\",\"description\":\"D\",\"solution\":2}]\nEnjoy [and good luck]!";
+        when(openAi.createResponse(anyString(), anyString()))
+                .thenReturn(nodeWithOutputText(payload));
+
+        List<GeneratedChallenge> batch = generator.generateBatch(1, 2);
+
+        assertThat(batch).extracting(GeneratedChallenge::title).containsExactly("A", "B");
+    }
+
+    @Test
+    void generateBatch_replyWithoutJson_failsToParse() {
+        when(openAi.createResponse(anyString(), anyString()))
+                .thenReturn(nodeWithOutputText("Sorry, I can't help with [that]."));
+
+        assertThatThrownBy(() -> generator.generateBatch(1, 2))
+                .isInstanceOf(LlmParseException.class);
+    }
+
     // Java
     // Place these inside CodeChallengeGeneratorTest
 
@@ -3,12 +3,19 @@ package com.chriscasey.codechallenger.challenge;
 import com.chriscasey.codechallenger.auth.User;
 import com.chriscasey.codechallenger.challenge.dto.CodeChallengeResponse;
 import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import com.chriscasey.codechallenger.exception.LlmCallException;
 import com.chriscasey.codechallenger.exception.NotFoundException;
+import com.chriscasey.codechallenger.exception.SubmissionRateLimitException;
+import com.chriscasey.codechallenger.exception.TooManyChallengesException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -19,7 +26,11 @@ import static org.mockito.Mockito.*;
 class CodeChallengeServiceTest {
 
     private CodeChallengeRepository repository;
-    private CodeChallengeGenerator generator;
+    private ChallengeSource generator;
+    private ChallengePool challengePool;
+    private SubmissionRateLimitService rateLimitService;
+    private UserChallengeStatsService statsService;
+    private ChallengeCatalog catalog;
     private CodeChallengeService service;
 
     private User user;
@@ -27,8 +38,13 @@ class CodeChallengeServiceTest {
     @BeforeEach
     void setUp() {
         repository = mock(CodeChallengeRepository.class);
-        generator = mock(CodeChallengeGenerator.class);
-        service = new CodeChallengeService(repository, generator);
+        generator = mock(ChallengeSource.class);
+        challengePool = mock(ChallengePool.class);
+        statsService = mock(UserChallengeStatsService.class);
+        catalog = mock(ChallengeCatalog.class);
+        rateLimitService = new SubmissionRateLimitService(new InMemoryCooldownStore(repository, 5));
+        service = new CodeChallengeService(repository, generator, rateLimitService, challengePool,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), statsService, catalog);
 
         user = new User();
         // assume User has setters; if not, adjust builder/constructor
@@ -57,6 +73,7 @@ class CodeChallengeServiceTest {
         assertThat(ch.getStatus()).isEqualTo(ChallengeStatus.COMPLETED);
         assertThat(ch.getCompletedAt()).isNotNull();
         verify(repository, never()).save(any()); // dirty checking
+        verify(statsService).recordCompleted(user.getId(), 1);
     }
 
     @Test
@@ -82,6 +99,29 @@ class CodeChallengeServiceTest {
         verify(repository, never()).save(any());
     }
 
+    @Test
+    void submitAnswer_withinCooldown_isRejectedWithoutQuery() {
+        CodeChallenge ch = CodeChallenge.builder()
+                .id(14L)
+                .user(user)
+                .title("t")
+                .description("d")
+                .solution(42)
+                .difficulty(1)
+                .failedAttempts(0)
+                .status(ChallengeStatus.PENDING)
+                .build();
+
+        when(repository.findByIdAndUser(14L, user)).thenReturn(Optional.of(ch));
+
+        service.submitAnswer(user, 14L, 1);
+        assertThatThrownBy(() -> service.submitAnswer(user, 14L, 2))
+                .isInstanceOf(SubmissionRateLimitException.class);
+
+        verify(repository, times(1)).findByIdAndUser(14L, user);
+        assertThat(ch.getFailedAttempts()).isEqualTo(1);
+    }
+
     @Test
     void submitAnswer_notFound_throws() {
         when(repository.findByIdAndUser(12L, user)).thenReturn(Optional.empty());
@@ -103,9 +143,14 @@ class CodeChallengeServiceTest {
                 .build();
 
         when(repository.findByIdAndUser(13L, user)).thenReturn(Optional.of(ch));
-        when(repository.countByUserAndStatus(eq(user), eq(ChallengeStatus.COMPLETED))).thenReturn(0L);
+        when(statsService.load(any())).thenReturn(UserChallengeStats.builder().pending(1).completed(3).build());
         when(generator.generate(anyInt()))
                 .thenReturn(new GeneratedChallenge("nt", "nd", 9, 1));
+        when(catalog.register(any(), anyInt())).thenAnswer(inv -> {
+            GeneratedChallenge g = inv.getArgument(0);
+            return ChallengeCatalogEntry.builder().id(5L).title(g.title()).description(g.description())
+                    .solution(g.solution()).difficulty(inv.getArgument(1)).build();
+        });
 
         ArgumentCaptor<CodeChallenge> saveCaptor = ArgumentCaptor.forClass(CodeChallenge.class);
         when(repository.save(saveCaptor.capture())).thenAnswer(inv -> {
@@ -123,5 +168,208 @@ class CodeChallengeServiceTest {
         assertThat(newCh.getUser()).isEqualTo(user);
         assertThat(newCh.getStatus()).isEqualTo(ChallengeStatus.PENDING);
         assertThat(newCh.getFailedAttempts()).isZero();
+        assertThat(newCh.getDifficulty()).isEqualTo(2); // 3 completed -> difficulty 2
+        assertThat(newCh.getCatalogEntryId()).isEqualTo(5L);
+        verify(statsService).recordSkipped(user.getId(), 1);
+        verify(statsService).recordCreated(user.getId(), 2);
+        // The replacement takes over the skipped challenge's slot instead of claiming a new one
+        verify(statsService, never()).tryReserve(any(), anyInt(), anyBoolean());
+        verify(statsService, never()).release(any());
+    }
+
+    @Test
+    void skipChallenge_generationFails_leavesChallengePending() {
+        CodeChallenge ch = CodeChallenge.builder()
+                .id(13L)
+                .user(user)
+                .title("t")
+                .description("d")
+                .solution(7)
+                .difficulty(1)
+                .failedAttempts(0)
+                .status(ChallengeStatus.PENDING)
+                .build();
+
+        when(repository.findByIdAndUser(13L, user)).thenReturn(Optional.of(ch));
+        when(statsService.load(any())).thenReturn(UserChallengeStats.builder().pending(1).build());
+        when(generator.generate(anyInt())).thenThrow(new IllegalStateException("boom"));
+
+        assertThatThrownBy(() -> service.skipChallenge(13L, user))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+
+        assertThat(ch.getStatus()).isEqualTo(ChallengeStatus.PENDING);
+        assertThat(ch.getCompletedAt()).isNull();
+        verify(statsService, never()).recordSkipped(any(), anyInt());
+        verify(statsService, never()).release(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void generateNewChallenge_errorDuringGeneration_stillReleasesSlot() {
+        when(statsService.tryReserve(any(), anyInt(), anyBoolean())).thenReturn(true);
+        when(statsService.load(any())).thenReturn(UserChallengeStats.builder().build());
+        when(generator.generate(anyInt())).thenThrow(new StackOverflowError());
+
+        assertThatThrownBy(() -> service.generateNewChallenge(user))
+                .isInstanceOf(StackOverflowError.class);
+
+        verify(statsService).release(user.getId());
+        verify(statsService).endInFlight(user.getId());
+    }
+
+    @Test
+    void generateNewChallenge_reusesUnseenCatalogEntryWithoutLlmCall() {
+        when(statsService.tryReserve(any(), anyInt(), anyBoolean())).thenReturn(true);
+        when(statsService.load(any())).thenReturn(UserChallengeStats.builder().build());
+        ChallengeCatalogEntry entry = ChallengeCatalogEntry.builder()
+                .id(7L).title("cached").description("d").solution(3).difficulty(1).build();
+        when(catalog.findUnseen(any(), eq(1))).thenReturn(Optional.of(entry));
+        when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        CodeChallengeResponse resp = service.generateNewChallenge(user);
+
+        assertThat(resp.title()).isEqualTo("cached");
+        verifyNoInteractions(generator, challengePool);
+        verify(catalog, never()).register(any(), anyInt());
+    }
+
+    @Test
+    void generateNewChallenge_atPendingLimit_isRejectedBeforeGenerating() {
+        when(statsService.tryReserve(any(), anyInt(), anyBoolean())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.generateNewChallenge(user))
+                .isInstanceOf(TooManyChallengesException.class);
+
+        verifyNoInteractions(generator);
+        verify(repository, never()).save(any());
+        verify(statsService, never()).release(any());
+        verify(statsService).endInFlight(user.getId());
+    }
+
+    @Test
+    void generateNewChallenge_marksInFlightBeforeReserving() {
+        when(statsService.tryReserve(any(), anyInt(), anyBoolean())).thenReturn(true);
+        when(statsService.load(any())).thenReturn(UserChallengeStats.builder().build());
+        when(generator.generate(anyInt())).thenReturn(new GeneratedChallenge("t", "d", 1, 1));
+        when(catalog.register(any(), anyInt())).thenReturn(
+                ChallengeCatalogEntry.builder().id(7L).title("t").difficulty(1).build());
+        when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        service.generateNewChallenge(user);
+
+        InOrder order = inOrder(statsService);
+        order.verify(statsService).beginInFlight(user.getId());
+        order.verify(statsService).tryReserve(user.getId(), 5, true);
+        order.verify(statsService).endInFlight(user.getId());
+    }
+
+    @Test
+    void generateNewChallenge_generationFails_releasesReservedSlot() {
+        when(statsService.tryReserve(any(), anyInt(), anyBoolean())).thenReturn(true);
+        when(statsService.load(any())).thenReturn(UserChallengeStats.builder().build());
+        when(challengePool.take(anyInt())).thenReturn(Optional.empty());
+        when(generator.generate(anyInt())).thenThrow(new IllegalStateException("boom"));
+
+        assertThatThrownBy(() -> service.generateNewChallenge(user))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(statsService).release(user.getId());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void completePlaceholder_failureAfterGeneration_discardsPlaceholder() {
+        CodeChallenge placeholder = CodeChallenge.builder()
+                .id(30L).user(user).title("Generating challenge...").description("")
+                .difficulty(2).status(ChallengeStatus.GENERATING).build();
+        ChallengeCatalogEntry entry = ChallengeCatalogEntry.builder()
+                .id(7L).title("cached").description("d").solution(3).difficulty(2).build();
+        when(catalog.findUnseen(any(), eq(2))).thenReturn(Optional.of(entry));
+        // load, then the persist phase fails, then the discard finds the row again
+        when(repository.findById(30L))
+                .thenReturn(Optional.of(placeholder))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(Optional.of(placeholder));
+
+        assertThatThrownBy(() -> service.completePlaceholder(30L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("db down");
+
+        verify(repository).delete(placeholder);
+        verify(statsService).recordDiscarded(user.getId(), 2);
+    }
+
+    @Test
+    void completePlaceholder_discardFailure_doesNotMaskOriginalError() {
+        when(repository.findById(31L))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.completePlaceholder(31L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("db down");
+
+        verify(repository, never()).delete(any());
+    }
+
+    @Test
+    void discardStalePlaceholders_skipsRowsResolvedInTheMeantime() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        CodeChallenge stale = CodeChallenge.builder()
+                .id(40L).user(user).difficulty(1).status(ChallengeStatus.GENERATING).build();
+        CodeChallenge completed = CodeChallenge.builder()
+                .id(41L).user(user).difficulty(1).status(ChallengeStatus.PENDING).build();
+        when(repository.findIdsByStatusCreatedBefore(ChallengeStatus.GENERATING, cutoff))
+                .thenReturn(List.of(40L, 41L));
+        when(repository.findById(40L)).thenReturn(Optional.of(stale));
+        when(repository.findById(41L)).thenReturn(Optional.of(completed));
+
+        assertThat(service.discardStalePlaceholders(cutoff)).isEqualTo(1);
+
+        verify(repository).delete(stale);
+        verify(repository, never()).delete(completed);
+        verify(statsService, times(1)).recordDiscarded(any(), anyInt());
+    }
+
+    @Test
+    void generateNewChallenge_llmReturnsAlreadyAssignedChallenge_generatesAgain() {
+        when(statsService.tryReserve(any(), anyInt(), anyBoolean())).thenReturn(true);
+        when(statsService.load(any())).thenReturn(UserChallengeStats.builder().build());
+        when(generator.generate(1)).thenReturn(
+                new GeneratedChallenge("seen", "d", 1, 1),
+                new GeneratedChallenge("other difficulty", "d", 2, 1),
+                new GeneratedChallenge("new", "d", 3, 1));
+        when(catalog.register(any(), eq(1))).thenAnswer(inv -> {
+            GeneratedChallenge g = inv.getArgument(0);
+            return switch (g.title()) {
+                case "seen" -> ChallengeCatalogEntry.builder().id(5L).title("seen").difficulty(1).build();
+                case "other difficulty" -> ChallengeCatalogEntry.builder().id(6L).title(g.title()).difficulty(3).build();
+                default -> ChallengeCatalogEntry.builder().id(7L).title("new").difficulty(1).build();
+            };
+        });
+        when(repository.existsByUserIdAndCatalogEntryId(any(), eq(5L))).thenReturn(true);
+        when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        CodeChallengeResponse resp = service.generateNewChallenge(user);
+
+        assertThat(resp.title()).isEqualTo("new");
+        verify(generator, times(3)).generate(1);
+    }
+
+    @Test
+    void generateNewChallenge_onlyDuplicatesGenerated_failsAndReleasesSlot() {
+        when(statsService.tryReserve(any(), anyInt(), anyBoolean())).thenReturn(true);
+        when(statsService.load(any())).thenReturn(UserChallengeStats.builder().build());
+        when(generator.generate(1)).thenReturn(new GeneratedChallenge("seen", "d", 1, 1));
+        when(catalog.register(any(), eq(1))).thenReturn(
+                ChallengeCatalogEntry.builder().id(5L).title("seen").difficulty(1).build());
+        when(repository.existsByUserIdAndCatalogEntryId(any(), eq(5L))).thenReturn(true);
+
+        assertThatThrownBy(() -> service.generateNewChallenge(user))
+                .isInstanceOf(LlmCallException.class);
+
+        verify(repository, never()).save(any());
+        verify(statsService).release(user.getId());
     }
 }
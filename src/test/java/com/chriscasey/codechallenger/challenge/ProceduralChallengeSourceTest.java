@@ -0,0 +1,36 @@
+package com.chriscasey.codechallenger.challenge;
+
+import com.chriscasey.codechallenger.challenge.dto.GeneratedChallenge;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProceduralChallengeSourceTest {
+
+    @Test
+    void sameSeed_producesSameSequence() {
+        List<GeneratedChallenge> first = generate(new ProceduralChallengeSource(7), 20);
+        List<GeneratedChallenge> second = generate(new ProceduralChallengeSource(7), 20);
+
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    void generate_clampsDifficulty() {
+        ProceduralChallengeSource source = new ProceduralChallengeSource(1);
+
+        assertThat(source.generate(0).difficulty()).isEqualTo(1);
+        assertThat(source.generate(9).difficulty()).isEqualTo(5);
+    }
+
+    private static List<GeneratedChallenge> generate(ProceduralChallengeSource source, int count) {
+        List<GeneratedChallenge> out = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            out.add(source.generate(1 + i % 5));
+        }
+        return out;
+    }
+}
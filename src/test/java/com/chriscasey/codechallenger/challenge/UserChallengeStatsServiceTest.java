@@ -0,0 +1,74 @@
+package com.chriscasey.codechallenger.challenge;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserChallengeStatsServiceTest {
+
+    private UserChallengeStatsRepository repository;
+    private UserChallengeStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserChallengeStatsRepository.class);
+        service = new UserChallengeStatsService(repository, mock(ApplicationEventPublisher.class),
+                mock(PlatformTransactionManager.class));
+        when(repository.findById(1L)).thenReturn(Optional.of(UserChallengeStats.builder().userId(1L).pending(5).build()));
+    }
+
+    @Test
+    void tryReserve_atLimit_reconcilesLeakedSlotsAndRetries() {
+        when(repository.reservePendingSlot(1L, 5)).thenReturn(0, 1);
+
+        assertThat(service.tryReserve(1L, 5, false)).isTrue();
+
+        verify(repository).reconcilePending(1L, 0);
+    }
+
+    @Test
+    void tryReserve_rebuild_doesNotCountCallersOwnInFlightMark() {
+        when(repository.reservePendingSlot(1L, 5)).thenReturn(0, 1);
+        service.beginInFlight(1L);
+        service.beginInFlight(1L);
+
+        assertThat(service.tryReserve(1L, 5, true)).isTrue();
+
+        verify(repository).reconcilePending(1L, 1);
+    }
+
+    @Test
+    void reconcile_keepsSlotsOfReservationsStillGenerating() {
+        when(repository.findUsersWithPendingDrift()).thenReturn(List.of(1L));
+        service.beginInFlight(1L);
+        service.beginInFlight(1L);
+        service.endInFlight(1L);
+
+        service.reconcile();
+
+        verify(repository).reconcilePending(eq(1L), eq(1L));
+        verify(repository, never()).reconcilePending(eq(2L), anyLong());
+    }
+
+    @Test
+    void load_missingRow_initializesInCallersTransaction() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        service = new UserChallengeStatsService(repository, mock(ApplicationEventPublisher.class), transactionManager);
+        when(repository.findById(2L)).thenReturn(Optional.empty(),
+                Optional.of(UserChallengeStats.builder().userId(2L).build()));
+
+        assertThat(service.load(2L).getUserId()).isEqualTo(2L);
+
+        verify(repository).initializeFromChallenges(2L);
+        verifyNoInteractions(transactionManager);
+    }
+}
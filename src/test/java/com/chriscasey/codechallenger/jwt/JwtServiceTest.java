@@ -0,0 +1,125 @@
+package com.chriscasey.codechallenger.jwt;
+
+import com.chriscasey.codechallenger.auth.Role;
+import com.chriscasey.codechallenger.auth.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    // 256-bit Base64 test secret
+    private static final String SECRET = "dGVzdC1zZWNyZXQta2V5LWZvci1qd3Qtc2VydmljZS10ZXN0cw==";
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(900_000L);
+
+        user = new User();
+        user.setId(7L);
+        user.setEmail("jwt@example.com");
+        user.setRole(Role.USER);
+    }
+
+    @Test
+    void parseToken_returnsVerifiedClaims() {
+        String token = jwtService.generateToken(new HashMap<>(), user);
+
+        AccessTokenClaims claims = jwtService.parseToken(token);
+
+        assertThat(claims.email()).isEqualTo("jwt@example.com");
+        assertThat(claims.userId()).isEqualTo(7L);
+        assertThat(claims.role()).isEqualTo(Role.USER);
+        assertThat(claims.hasPrincipalClaims()).isTrue();
+        assertThat(claims.expiresAt()).isAfter(Instant.now());
+        assertThat(claims.tokenId()).isNotBlank();
+        assertThat(claims.issuedAt()).isNotNull();
+    }
+
+    @Test
+    void parseToken_rejectsTamperedToken() {
+        String token = jwtService.generateToken(new HashMap<>(), user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.parseToken(tampered))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void parseToken_rejectsExpiredToken() {
+        JwtService expiring = newService(-1_000L);
+        String token = expiring.generateToken(new HashMap<>(), user);
+
+        assertThatThrownBy(() -> jwtService.parseToken(token))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void generateToken_signsEs256WithKid_publishedInJwks() {
+        String token = jwtService.generateToken(new HashMap<>(), user);
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+
+        assertThat(header).contains("\"alg\":\"ES256\"");
+        assertThat(jwtService.publicJwks())
+                .singleElement()
+                .satisfies(jwk -> assertThat(header).contains("\"kid\":\"" + jwk.get("kid") + "\""));
+    }
+
+    @Test
+    void parseToken_acceptsLegacyHs256TokenWithoutKid() {
+        String legacy = Jwts.builder()
+                .setClaims(Map.of(JwtService.USER_ID_CLAIM, 7L, JwtService.ROLE_CLAIM, "USER"))
+                .setSubject("jwt@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(jwtService.parseToken(legacy).userId()).isEqualTo(7L);
+    }
+
+    @Test
+    void parseToken_rejectsTokenFromOtherKeyRing() {
+        String foreign = newService(900_000L).generateToken(new HashMap<>(), user);
+
+        assertThatThrownBy(() -> jwtService.parseToken(foreign))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void init_withoutPrivateKey_failsUnlessEphemeralKeysAllowed() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "signingPrivateKey", "");
+
+        assertThatThrownBy(service::init)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("security.jwt.signing.private-key");
+    }
+
+    private static JwtService newService(long accessTokenExpiration) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", accessTokenExpiration);
+        ReflectionTestUtils.setField(service, "allowEphemeral", true);
+        service.init();
+        return service;
+    }
+}
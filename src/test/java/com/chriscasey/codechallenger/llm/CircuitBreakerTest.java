@@ -0,0 +1,131 @@
+package com.chriscasey.codechallenger.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 1_000L, clock::get);
+
+    // A call admitted now that fails
+    private void failCall() {
+        breaker.onFailure(breaker.tryAcquire());
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures_andRejectsUntilOpenDurationElapses() {
+        failCall();
+        failCall();
+        assertThat(breaker.tryAcquire().admitted()).isTrue();
+
+        failCall();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        clock.set(400L);
+        assertThat(breaker.tryAcquire().waitNanos()).isEqualTo(600L);
+    }
+
+    @Test
+    void halfOpen_admitsSingleProbe_andClosesOnSuccess() {
+        failCall();
+        failCall();
+        failCall();
+        clock.set(1_000L);
+
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertThat(probe.admitted()).isTrue();
+        assertThat(breaker.tryAcquire().waitNanos()).isPositive(); // everyone else waits for it
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(probe);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire().admitted()).isTrue();
+    }
+
+    @Test
+    void failedProbe_reopens() {
+        failCall();
+        failCall();
+        failCall();
+        clock.set(1_000L);
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertThat(probe.admitted()).isTrue();
+
+        breaker.onFailure(probe);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire().waitNanos()).isEqualTo(1_000L);
+    }
+
+    @Test
+    void staleOutcomeDuringHalfOpen_doesNotDecideTheProbe() {
+        // Admitted while closed, still running when the circuit opens
+        CircuitBreaker.Permit slowCall = breaker.tryAcquire();
+        failCall();
+        failCall();
+        failCall();
+        clock.set(1_000L);
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+
+        breaker.onSuccess(slowCall);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onFailure(slowCall);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(probe);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void unreportedProbe_isReplacedAfterOpenDuration() {
+        failCall();
+        failCall();
+        failCall();
+        clock.set(1_000L);
+        CircuitBreaker.Permit lostProbe = breaker.tryAcquire(); // never reported (e.g. an Error)
+        assertThat(lostProbe.admitted()).isTrue();
+
+        clock.set(1_500L);
+        assertThat(breaker.tryAcquire().waitNanos()).isEqualTo(500L);
+
+        clock.set(2_000L);
+        CircuitBreaker.Permit nextProbe = breaker.tryAcquire();
+        assertThat(nextProbe.admitted()).isTrue();
+        assertThat(breaker.tryAcquire().admitted()).isFalse();
+
+        // The lost probe finishing late doesn't decide anything; the new probe does
+        breaker.onFailure(lostProbe);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess(nextProbe);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void staleSuccessWhileOpen_keepsCircuitOpen() {
+        CircuitBreaker.Permit slowCall = breaker.tryAcquire();
+        failCall();
+        failCall();
+        failCall();
+
+        breaker.onSuccess(slowCall);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void retryBudget_onlyAllowsRetriesEarnedByRequests() {
+        RetryBudget budget = new RetryBudget(0.5, 1);
+
+        assertThat(budget.tryWithdraw()).isTrue();  // starts full
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.onRequest();
+        assertThat(budget.tryWithdraw()).isFalse(); // half a token
+        budget.onRequest();
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+}
@@ -0,0 +1,41 @@
+package com.chriscasey.codechallenger.llm;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingJsonExtractorTest {
+
+    private final StreamingJsonExtractor extractor = new StreamingJsonExtractor(new JsonFactory());
+
+    @Test
+    void completesOnFirstTopLevelObject_acrossChunkBoundaries() {
+        assertThat(extractor.feed("Sure! ```json\n{\"tit")).isFalse();
+        assertThat(extractor.feed("le\":\"A {b}\",\"nested\":{\"x\":[1,")).isFalse();
+        assertThat(extractor.feed("2]},\"solution\":4")).isFalse();
+        assertThat(extractor.feed("2}\n``` Hope this helps")).isTrue();
+
+        assertThat(extractor.json())
+                .contains("{\"title\":\"A {b}\",\"nested\":{\"x\":[1,2]},\"solution\":42}");
+        // Anything after completion is not even looked at
+        assertThat(extractor.feed("more tokens")).isTrue();
+    }
+
+    @Test
+    void extractsTopLevelArray() {
+        assertThat(extractor.feed("[{\"a\":1},")).isFalse();
+        assertThat(extractor.feed("{\"a\":2}]")).isTrue();
+
+        assertThat(extractor.json()).contains("[{\"a\":1},{\"a\":2}]");
+    }
+
+    @Test
+    void malformedJson_fallsBackToRawText() {
+        assertThat(extractor.feed("{\"a\": nope}")).isFalse();
+        assertThat(extractor.feed(" tail")).isFalse();
+
+        assertThat(extractor.json()).isEmpty();
+        assertThat(extractor.rawText()).isEqualTo("{\"a\": nope} tail");
+    }
+}
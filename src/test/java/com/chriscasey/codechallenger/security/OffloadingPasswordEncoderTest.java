@@ -0,0 +1,68 @@
+package com.chriscasey.codechallenger.security;
+
+import com.chriscasey.codechallenger.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffloadingPasswordEncoderTest {
+
+    // One thread and no queue, so a second concurrent call is rejected
+    private final ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OffloadingPasswordEncoder encoder =
+            new OffloadingPasswordEncoder(new BCryptPasswordEncoder(4), executor, registry);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void encodeAndMatches_runOnExecutor_andAreTimed() {
+        String hash = encoder.encode("secret");
+
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(registry.get("auth.password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void saturatedExecutor_rejectsWithBusyException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            assertThatThrownBy(() -> encoder.encode("secret"))
+                    .isInstanceOf(PasswordHashingBusyException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void upgradeEncoding_detectsWeakerStoredHash() {
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+        OffloadingPasswordEncoder stronger =
+                new OffloadingPasswordEncoder(new BCryptPasswordEncoder(5), executor, new SimpleMeterRegistry());
+
+        assertThat(encoder.upgradeEncoding(weak)).isFalse();
+        assertThat(stronger.upgradeEncoding(weak)).isTrue();
+    }
+}
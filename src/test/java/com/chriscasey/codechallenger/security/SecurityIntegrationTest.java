@@ -17,7 +17,7 @@ import java.util.List;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "security.jwt.signing.allow-ephemeral=true")
 @org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
 class SecurityIntegrationTest {
 
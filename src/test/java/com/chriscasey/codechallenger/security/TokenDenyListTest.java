@@ -0,0 +1,69 @@
+package com.chriscasey.codechallenger.security;
+
+import com.chriscasey.codechallenger.auth.RevokedToken;
+import com.chriscasey.codechallenger.auth.RevokedTokenRepository;
+import com.chriscasey.codechallenger.auth.Role;
+import com.chriscasey.codechallenger.auth.UserChangedEvent;
+import com.chriscasey.codechallenger.jwt.AccessTokenClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenDenyListTest {
+
+    private RevokedTokenRepository repository;
+    private TokenDenyList denyList;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RevokedTokenRepository.class);
+        denyList = new TokenDenyList(repository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 900_000L);
+    }
+
+    @Test
+    void revoke_deniesOnlyThatToken() {
+        AccessTokenClaims revoked = claims("jti-1", Instant.now());
+        AccessTokenClaims other = claims("jti-2", Instant.now());
+
+        denyList.revoke(revoked);
+
+        assertThat(denyList.isRevoked(revoked)).isTrue();
+        assertThat(denyList.isRevoked(other)).isFalse();
+        verify(repository).save(any());
+    }
+
+    @Test
+    void userChange_deniesTokensIssuedBefore() {
+        AccessTokenClaims old = claims("jti-1", Instant.now().minusSeconds(60));
+
+        denyList.onUserChanged(new UserChangedEvent(7L, "u@test.com"));
+
+        assertThat(denyList.isRevoked(old)).isTrue();
+        assertThat(denyList.isRevoked(claims("jti-2", Instant.now().plusSeconds(1)))).isFalse();
+    }
+
+    @Test
+    void load_replaysPersistedRevocations() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(RevokedToken.builder()
+                .jti("jti-9").revokedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(600)).build()));
+
+        denyList.load();
+
+        assertThat(denyList.isRevoked(claims("jti-9", Instant.now()))).isTrue();
+    }
+
+    private static AccessTokenClaims claims(String jti, Instant issuedAt) {
+        return new AccessTokenClaims("u@test.com", 7L, Role.USER, jti, issuedAt, issuedAt.plusSeconds(900));
+    }
+}